@@ -0,0 +1,117 @@
+package com.merufureku.aromatica.auth_service.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to observed latency, modelled on the gradient algorithm of
+ * Netflix concurrency-limits.
+ * <p>
+ * A long-term average latency approximates the no-load latency. While recent latency stays close to
+ * it (within {@code tolerance}), the limit grows by a small queue allowance. Once recent latency
+ * climbs above it, the gradient {@code long / short} shrinks the limit in proportion. A
+ * request dropped further down (e.g. a rejected hash) is an overload signal and backs the limit
+ * off multiplicatively (AIMD).
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double tolerance;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private volatile double estimatedLimit;
+    private volatile int limit;
+
+    private double shortRtt;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, double tolerance) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limits: min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.estimatedLimit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Admits a request if fewer than {@link #limit()} are in flight. Every admitted request must
+     * be followed by exactly one {@link #onSample} or {@link #onDropped}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            var current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSample(long rttNanos) {
+        var inflightAtStart = inflight.getAndDecrement();
+        update(rttNanos, inflightAtStart);
+    }
+
+    public void onDropped() {
+        inflight.decrementAndGet();
+        synchronized (this) {
+            setEstimate(estimatedLimit * BACKOFF_RATIO);
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inflightAtStart) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (longRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+
+        shortRtt += (rttNanos - shortRtt) * 2.0 / (SHORT_WINDOW + 1);
+        longRtt += (rttNanos - longRtt) * 2.0 / (LONG_WINDOW + 1);
+
+        // After latency drops back the long average stays inflated and would hide the next
+        // rise, so pull it down faster than the window alone would
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        // Only grow when the limit is actually being used, otherwise it would drift to the max
+        if (inflightAtStart < estimatedLimit / 2) {
+            return;
+        }
+
+        var gradient = Math.clamp(tolerance * longRtt / shortRtt, 0.5, 1.0);
+        var queueSize = Math.sqrt(estimatedLimit);
+        var newLimit = estimatedLimit * gradient + queueSize;
+
+        setEstimate(estimatedLimit * (1 - smoothing) + newLimit * smoothing);
+    }
+
+    private void setEstimate(double estimate) {
+        estimatedLimit = Math.clamp(estimate, minLimit, maxLimit);
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,15 @@
+package com.merufureku.aromatica.auth_service.admission;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Thrown by {@link PriorityAdmissionDataSource} when a request's tier gets no database permit.
+ * Being a transient connection failure, callers that already tolerate an unavailable database
+ * (e.g. the JDBC rate-limit backend) handle it the same way.
+ */
+public class AdmissionRejectedException extends SQLTransientConnectionException {
+
+    public AdmissionRejectedException(String gate, RequestPriority priority) {
+        super("No " + gate + " admission permit for " + priority + " request");
+    }
+}
@@ -0,0 +1,93 @@
+package com.merufureku.aromatica.auth_service.admission;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Puts a {@link PriorityAdmissionQueue} in front of the connection pool, so connections are
+ * handed out by the tier of the request asking for them. The permit is held until the connection
+ * is closed, i.e. returned to the pool.
+ * <p>
+ * The queue is looked up on first use because the data source is wrapped before the meter
+ * registry and the queue beans exist.
+ */
+public class PriorityAdmissionDataSource extends DelegatingDataSource {
+
+    private final Supplier<PriorityAdmissionQueue> admissionQueue;
+
+    public PriorityAdmissionDataSource(DataSource targetDataSource, Supplier<PriorityAdmissionQueue> admissionQueue) {
+        super(targetDataSource);
+        this.admissionQueue = admissionQueue;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        var queue = admit();
+        try {
+            return releasing(super.getConnection(), queue);
+        } catch (SQLException | RuntimeException e) {
+            queue.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        var queue = admit();
+        try {
+            return releasing(super.getConnection(username, password), queue);
+        } catch (SQLException | RuntimeException e) {
+            queue.release();
+            throw e;
+        }
+    }
+
+    private PriorityAdmissionQueue admit() throws SQLException {
+        var queue = admissionQueue.get();
+        var priority = RequestPriority.current();
+        try {
+            if (!queue.acquire(priority)) {
+                throw new AdmissionRejectedException(queue.name(), priority);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AdmissionRejectedException(queue.name(), priority);
+        }
+        return queue;
+    }
+
+    private static Connection releasing(Connection connection, PriorityAdmissionQueue queue) {
+        var released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                PriorityAdmissionDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> {
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                            queue.release();
+                        }
+                    }
+                });
+    }
+}
@@ -0,0 +1,208 @@
+package com.merufureku.aromatica.auth_service.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed number of permits shared by all {@link RequestPriority} tiers, with part of them held
+ * back for the higher tiers.
+ * <p>
+ * A tier may only take a permit while fewer than its ceiling are in use. The ceiling is the
+ * capacity minus the permits reserved by every tier above it, so CRITICAL can use all permits,
+ * STANDARD all but the CRITICAL reserve, and BULK whatever is left. Each tier queues for a bounded
+ * time in its own bounded queue, and a freed permit goes to the highest tier that is waiting.
+ * Requests that find their queue full or time out are rejected.
+ */
+public class PriorityAdmissionQueue {
+
+    private static final RequestPriority[] TIERS = RequestPriority.values();
+
+    private final String name;
+    private final int capacity;
+
+    private final int[] ceilings = new int[TIERS.length];
+    private final int[] maxQueued = new int[TIERS.length];
+    private final long[] maxWaitNanos = new long[TIERS.length];
+    private final int[] queued = new int[TIERS.length];
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition[] available = new Condition[TIERS.length];
+    private int inUse;
+
+    private final Counter[] rejected = new Counter[TIERS.length];
+    private final Timer[] waitTimers = new Timer[TIERS.length];
+
+    public PriorityAdmissionQueue(String name, int capacity, Map<RequestPriority, Tier> tiers, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.capacity = capacity;
+
+        var ceiling = capacity;
+        for (var priority : TIERS) {
+            var tier = tiers.get(priority);
+            if (tier == null) {
+                throw new IllegalArgumentException("No admission settings for " + priority + " on " + name);
+            }
+            if (ceiling < 1) {
+                throw new IllegalArgumentException("Reserves on " + name + " leave no permits for " + priority);
+            }
+
+            var t = priority.ordinal();
+            ceilings[t] = ceiling;
+            maxQueued[t] = tier.maxQueued();
+            maxWaitNanos[t] = tier.maxWait().toNanos();
+            available[t] = lock.newCondition();
+            ceiling -= tier.reserved();
+
+            var tag = priority.name().toLowerCase();
+            Gauge.builder("admission.queue.size", this, q -> q.queued(priority))
+                    .description("Requests waiting for an admission permit")
+                    .tags("gate", name, "tier", tag)
+                    .register(meterRegistry);
+            rejected[t] = Counter.builder("admission.rejected")
+                    .description("Requests shed because no admission permit was available")
+                    .tags("gate", name, "tier", tag)
+                    .register(meterRegistry);
+            waitTimers[t] = Timer.builder("admission.wait")
+                    .description("Time spent waiting for an admission permit")
+                    .tags("gate", name, "tier", tag)
+                    .register(meterRegistry);
+        }
+
+        Gauge.builder("admission.in.use", this, PriorityAdmissionQueue::inUse)
+                .description("Admission permits currently held")
+                .tag("gate", name)
+                .register(meterRegistry);
+        Gauge.builder("admission.capacity", this, q -> q.capacity)
+                .description("Admission permits in total")
+                .tag("gate", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a permit for the tier, waiting up to the tier's maximum wait. Every successful call
+     * must be paired with one {@link #release()}.
+     *
+     * @return false if the tier's queue was full or no permit freed up in time
+     */
+    public boolean acquire(RequestPriority priority) throws InterruptedException {
+        var t = priority.ordinal();
+        var start = System.nanoTime();
+
+        lock.lock();
+        try {
+            if (canEnter(t)) {
+                inUse++;
+                return true;
+            }
+            if (queued[t] >= maxQueued[t] || maxWaitNanos[t] <= 0) {
+                rejected[t].increment();
+                return false;
+            }
+
+            queued[t]++;
+            var admitted = false;
+            try {
+                var remaining = maxWaitNanos[t];
+                while (!canEnter(t)) {
+                    if (remaining <= 0) {
+                        rejected[t].increment();
+                        return false;
+                    }
+                    remaining = available[t].awaitNanos(remaining);
+                }
+                inUse++;
+                admitted = true;
+                return true;
+            } finally {
+                queued[t]--;
+                waitTimers[t].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                // A signal meant for this waiter must not be lost if it gave up, and if it got in
+                // there may still be room for the next one
+                if (!admitted || inUse < capacity) {
+                    signalNext();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            inUse--;
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int inUse() {
+        lock.lock();
+        try {
+            return inUse;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued(RequestPriority priority) {
+        lock.lock();
+        try {
+            return queued[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canEnter(int tier) {
+        if (inUse >= ceilings[tier]) {
+            return false;
+        }
+        // Do not overtake a higher tier that is already waiting for a permit
+        for (int higher = 0; higher < tier; higher++) {
+            if (queued[higher] > 0 && inUse < ceilings[higher]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void signalNext() {
+        for (int t = 0; t < TIERS.length; t++) {
+            if (queued[t] > 0 && inUse < ceilings[t]) {
+                available[t].signal();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Settings for one tier.
+     *
+     * @param reserved  permits only this tier and the tiers above it may use
+     * @param maxQueued requests of this tier allowed to wait at once
+     * @param maxWait   how long a request of this tier waits before it is rejected
+     */
+    public record Tier(int reserved, int maxQueued, Duration maxWait) {
+
+        public Tier {
+            if (reserved < 0 || maxQueued < 0 || maxWait.isNegative()) {
+                throw new IllegalArgumentException("Invalid admission tier: reserved=" + reserved
+                        + ", maxQueued=" + maxQueued + ", maxWait=" + maxWait);
+            }
+        }
+    }
+}
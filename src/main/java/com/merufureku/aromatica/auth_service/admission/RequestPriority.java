@@ -0,0 +1,51 @@
+package com.merufureku.aromatica.auth_service.admission;
+
+import java.util.function.Supplier;
+
+/**
+ * Admission tiers, highest priority first. Under overload the lowest tier is shed first.
+ */
+public enum RequestPriority {
+
+    /** Cheap calls clients cannot work without: token refresh and reading the caller's own account. */
+    CRITICAL,
+    STANDARD,
+    /** Expensive, retryable calls that hash passwords: login, register, change password. */
+    BULK;
+
+    private static final ThreadLocal<RequestPriority> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The tier of the request being handled on this thread, {@link #STANDARD} outside a request
+     * (schedulers, startup).
+     */
+    public static RequestPriority current() {
+        var priority = CURRENT.get();
+        return priority != null ? priority : STANDARD;
+    }
+
+    public static void setCurrent(RequestPriority priority) {
+        CURRENT.set(priority);
+    }
+
+    public static void clearCurrent() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Runs the action as the given tier and puts the caller's tier back afterwards.
+     */
+    public static <T> T callAs(RequestPriority priority, Supplier<T> action) {
+        var previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.merufureku.aromatica.auth_service.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * No broadcast. Correct for a single node; with several replicas each one serves a changed
+ * profile from its own cache until the entry expires.
+ */
+@Component
+@ConditionalOnProperty(name = "profile.cache.broadcast", havingValue = "none", matchIfMissing = true)
+public class LocalProfileInvalidationBroadcast implements ProfileInvalidationBroadcast {
+
+    @Override
+    public void publish(Integer userId) {
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+    }
+}
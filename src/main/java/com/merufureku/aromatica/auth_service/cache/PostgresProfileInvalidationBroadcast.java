@@ -0,0 +1,225 @@
+package com.merufureku.aromatica.auth_service.cache;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Broadcasts profile invalidations with Postgres LISTEN/NOTIFY.
+ * <p>
+ * Notifications are sent through the pool on a background thread, so they go out on an
+ * auto-commit connection after the writing transaction committed and never delay the request.
+ * Receiving needs a session that stays open, so the listener holds its own connection outside
+ * the pool. That connection is configured like the pool's, {@code spring.datasource.*} plus
+ * {@code spring.datasource.hikari.*} (e.g. {@code data-source-properties}). After it reconnects
+ * the local cache is cleared, since anything sent in between is lost. Payloads are
+ * {@code nodeId:userId:sentAtMillis}; a node ignores its own messages.
+ * <p>
+ * The listener starts with the application context and stops before it closes.
+ */
+@Component
+@ConditionalOnProperty(name = "profile.cache.broadcast", havingValue = "postgres")
+public class PostgresProfileInvalidationBroadcast implements ProfileInvalidationBroadcast, SmartLifecycle {
+
+    private final Logger logger = LogManager.getLogger(this.getClass());
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final String NOTIFY = "SELECT pg_notify(?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final Environment environment;
+    private final String channel;
+    private final int pollMillis;
+    private final long reconnectMillis;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ThreadPoolExecutor publisher;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+    private HikariDataSource listenerDataSource;
+
+    public PostgresProfileInvalidationBroadcast(JdbcTemplate jdbcTemplate,
+                                                MeterRegistry meterRegistry,
+                                                DataSourceProperties dataSourceProperties,
+                                                Environment environment,
+                                                @Value("${profile.cache.broadcast.channel:profile_invalidation}") String channel,
+                                                @Value("${profile.cache.broadcast.poll-ms:500}") int pollMillis,
+                                                @Value("${profile.cache.broadcast.reconnect-ms:5000}") long reconnectMillis,
+                                                @Value("${profile.cache.broadcast.queue-capacity:1024}") int queueCapacity) {
+        // LISTEN takes an identifier, not a bind parameter
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid profile.cache.broadcast.channel: " + channel);
+        }
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.environment = environment;
+        this.channel = channel;
+        this.pollMillis = pollMillis;
+        this.reconnectMillis = reconnectMillis;
+
+        this.publisher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> daemon(runnable, "profile-invalidation-publisher"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.dropped = Counter.builder("profile.cache.broadcast.dropped")
+                .description("Profile invalidations not sent because the publish queue was full or the send failed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(Integer userId) {
+        var payload = nodeId + ":" + userId + ":" + System.currentTimeMillis();
+        try {
+            publisher.execute(() -> send(payload));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            logger.warn("Profile invalidation queue is full, user {} stays cached on other nodes until it expires", userId);
+        }
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        listenerDataSource = createListenerDataSource();
+        running = true;
+        listenerThread = daemon(this::listen, "profile-invalidation-listener");
+        listenerThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        listenerThread.interrupt();
+        try {
+            listenerThread.join(2L * pollMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        listenerDataSource.close();
+        publisher.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private HikariDataSource createListenerDataSource() {
+        var dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        // Bound the same way Boot binds the application pool
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName("profile-invalidation-listener");
+        dataSource.setMaximumPoolSize(1);
+        dataSource.setMinimumIdle(0);
+        // A database that is down at startup is retried by the listener loop
+        dataSource.setInitializationFailTimeout(-1);
+        // The LISTEN session is held for as long as it works, not recycled
+        dataSource.setMaxLifetime(0);
+        return dataSource;
+    }
+
+    private void send(String payload) {
+        try {
+            jdbcTemplate.query(NOTIFY, (RowCallbackHandler) rs -> { }, channel, payload);
+        } catch (DataAccessException e) {
+            dropped.increment();
+            logger.warn("Failed to broadcast profile invalidation {}", payload, e);
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (var connection = listenerDataSource.getConnection();
+                 var statement = connection.createStatement()) {
+                statement.execute("LISTEN " + channel);
+                var pgConnection = connection.unwrap(PGConnection.class);
+                logger.info("Listening for profile invalidations on channel {}", channel);
+
+                listeners.forEach(Listener::missedInvalidations);
+
+                while (running) {
+                    var notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (var notification : notifications) {
+                        onNotification(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Profile invalidation listener lost its connection, reconnecting in {} ms", reconnectMillis, e);
+                try {
+                    Thread.sleep(reconnectMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void onNotification(String payload) {
+        var parts = payload.split(":");
+        if (parts.length != 3) {
+            logger.warn("Ignoring malformed profile invalidation {}", payload);
+            return;
+        }
+        if (parts[0].equals(nodeId)) {
+            return;
+        }
+
+        try {
+            var userId = Integer.valueOf(parts[1]);
+            var sentAtMillis = Long.parseLong(parts[2]);
+            listeners.forEach(listener -> listener.invalidated(userId, sentAtMillis));
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed profile invalidation {}", payload);
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        var thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,130 @@
+package com.merufureku.aromatica.auth_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.merufureku.aromatica.auth_service.dto.responses.MyDetailsResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded per-node cache of {@code /auth/me} responses by user id.
+ * <p>
+ * Entries expire after {@code profile.cache.ttl-seconds}, which bounds how stale a replica can
+ * be if a broadcast is lost. Writers call {@link #invalidate} after changing a user; the entry
+ * is evicted once the transaction commits and the other replicas are told through the
+ * {@link ProfileInvalidationBroadcast}.
+ * <p>
+ * A miss loads inside the cache's compute for that key. Concurrent misses for the same user share
+ * one query, and an invalidation waits for a running load, so a load that read the old row can
+ * never be stored after the eviction.
+ * <p>
+ * Hits and misses are published as {@code cache.gets{cache=profile}} plus the
+ * {@code profile.cache.hit.ratio} gauge. Staleness shows in {@code profile.cache.entry.age}, the
+ * age of every response served, and {@code profile.cache.invalidation.lag}, the delay until a
+ * remote invalidation arrived.
+ */
+@Component
+public class ProfileCache implements ProfileInvalidationBroadcast.Listener {
+
+    private final Cache<Integer, Entry> cache;
+    private final ProfileInvalidationBroadcast broadcast;
+    private final Ticker ticker;
+    private final LongSupplier clockMillis;
+
+    private final Timer entryAge;
+    private final Timer invalidationLag;
+
+    @Autowired
+    public ProfileCache(ProfileInvalidationBroadcast broadcast,
+                        MeterRegistry meterRegistry,
+                        @Value("${profile.cache.max-entries:50000}") long maxEntries,
+                        @Value("${profile.cache.ttl-seconds:60}") long ttlSeconds) {
+        this(broadcast, meterRegistry, maxEntries, ttlSeconds, Ticker.systemTicker(), System::currentTimeMillis);
+    }
+
+    ProfileCache(ProfileInvalidationBroadcast broadcast, MeterRegistry meterRegistry, long maxEntries, long ttlSeconds,
+                 Ticker ticker, LongSupplier clockMillis) {
+        this.broadcast = broadcast;
+        this.ticker = ticker;
+        this.clockMillis = clockMillis;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "profile");
+        Gauge.builder("profile.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of /auth/me lookups served from the profile cache")
+                .register(meterRegistry);
+        this.entryAge = Timer.builder("profile.cache.entry.age")
+                .description("Age of the cached profile when it was served")
+                .register(meterRegistry);
+        this.invalidationLag = Timer.builder("profile.cache.invalidation.lag")
+                .description("Time from a profile change on another node until this node evicted it")
+                .register(meterRegistry);
+
+        broadcast.subscribe(this);
+    }
+
+    /**
+     * The cached response for the user, loaded with the loader on a miss. Exceptions thrown by
+     * the loader are rethrown and nothing is cached.
+     */
+    public MyDetailsResponse get(Integer userId, Function<Integer, MyDetailsResponse> loader) {
+        var entry = cache.get(userId, key -> new Entry(loader.apply(key), ticker.read()));
+        entryAge.record(ticker.read() - entry.loadedAtNanos(), TimeUnit.NANOSECONDS);
+        return entry.response();
+    }
+
+    /**
+     * Evicts the user on every node. Inside a transaction this happens after it commits, so no
+     * node reloads the old row in between; a rollback leaves the cache alone.
+     */
+    public void invalidate(Integer userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictAndPublish(userId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictAndPublish(userId);
+            }
+        });
+    }
+
+    @Override
+    public void invalidated(Integer userId, long sentAtMillis) {
+        cache.invalidate(userId);
+        invalidationLag.record(Math.max(0, clockMillis.getAsLong() - sentAtMillis), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void missedInvalidations() {
+        cache.invalidateAll();
+    }
+
+    private void evictAndPublish(Integer userId) {
+        cache.invalidate(userId);
+        broadcast.publish(userId);
+    }
+
+    private record Entry(MyDetailsResponse response, long loadedAtNanos) {
+    }
+}
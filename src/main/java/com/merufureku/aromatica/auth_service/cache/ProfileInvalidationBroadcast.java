@@ -0,0 +1,30 @@
+package com.merufureku.aromatica.auth_service.cache;
+
+/**
+ * Carries profile cache invalidations to the other replicas. Select one with
+ * {@code profile.cache.broadcast}: {@code none} (single node) or {@code postgres}
+ * (LISTEN/NOTIFY on the application database).
+ */
+public interface ProfileInvalidationBroadcast {
+
+    /**
+     * Tells the other replicas that the profile of the user changed. Never fails the caller;
+     * a lost message leaves the other replicas stale for at most the cache TTL.
+     */
+    void publish(Integer userId);
+
+    void subscribe(Listener listener);
+
+    interface Listener {
+
+        /**
+         * Another replica changed the profile of the user at {@code sentAtMillis} (epoch millis).
+         */
+        void invalidated(Integer userId, long sentAtMillis);
+
+        /**
+         * Invalidations may have been lost, e.g. while the broadcast was reconnecting.
+         */
+        void missedInvalidations();
+    }
+}
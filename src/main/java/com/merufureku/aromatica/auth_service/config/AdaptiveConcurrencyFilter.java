@@ -0,0 +1,106 @@
+package com.merufureku.aromatica.auth_service.config;
+
+import com.merufureku.aromatica.auth_service.admission.AdaptiveConcurrencyLimit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Caps how many password-hashing requests (login, register, change password) run at once.
+ * They share one CPU-bound resource, so one adaptive limit covers all of them, and requests over
+ * the limit are shed with 503 straight away instead of queuing.
+ */
+@Component
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LogManager.getLogger(AdaptiveConcurrencyFilter.class);
+
+    private static final String LIMITER_NAME = "credentials";
+
+    private final Set<String> limitedPaths;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final Counter rejected;
+    private final Counter dropped;
+
+    public AdaptiveConcurrencyFilter(MeterRegistry meterRegistry,
+                                     @Value("${concurrency.limit.paths:/login,/register,/auth/me/change-password}") Set<String> limitedPaths,
+                                     @Value("${concurrency.limit.initial:8}") int initialLimit,
+                                     @Value("${concurrency.limit.min:2}") int minLimit,
+                                     @Value("${concurrency.limit.max:0}") int maxLimit,
+                                     @Value("${concurrency.limit.smoothing:0.2}") double smoothing,
+                                     @Value("${concurrency.limit.tolerance:1.5}") double tolerance) {
+        var max = maxLimit > 0 ? maxLimit : 4 * Runtime.getRuntime().availableProcessors();
+
+        this.limitedPaths = Set.copyOf(limitedPaths);
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, max, smoothing, tolerance);
+
+        Gauge.builder("concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::limit)
+                .description("Current adaptive concurrency limit")
+                .tag("limiter", LIMITER_NAME)
+                .register(meterRegistry);
+        Gauge.builder("concurrency.inflight", concurrencyLimit, AdaptiveConcurrencyLimit::inflight)
+                .description("Requests currently admitted by the limiter")
+                .tag("limiter", LIMITER_NAME)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("concurrency.rejected")
+                .description("Requests shed because the concurrency limit was reached")
+                .tag("limiter", LIMITER_NAME)
+                .register(meterRegistry);
+        this.dropped = Counter.builder("concurrency.dropped")
+                .description("Admitted requests that were rejected downstream as overloaded")
+                .tag("limiter", LIMITER_NAME)
+                .register(meterRegistry);
+
+        logger.info("Adaptive concurrency limit on {} starting at {}, range {}-{}",
+                this.limitedPaths, concurrencyLimit.limit(), minLimit, max);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !limitedPaths.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        if (!concurrencyLimit.tryAcquire()) {
+            rejected.increment();
+            logger.debug("Concurrency limit {} reached, shedding {}", concurrencyLimit.limit(), request.getServletPath());
+            FilterErrorResponses.sendOverloaded(response, request.getRequestURI());
+            return;
+        }
+
+        var start = System.nanoTime();
+        var completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed && response.getStatus() != HttpStatus.SERVICE_UNAVAILABLE.value()) {
+                concurrencyLimit.onSample(System.nanoTime() - start);
+            } else {
+                dropped.increment();
+                concurrencyLimit.onDropped();
+            }
+        }
+    }
+
+    AdaptiveConcurrencyLimit concurrencyLimit() {
+        return concurrencyLimit;
+    }
+}
@@ -0,0 +1,94 @@
+package com.merufureku.aromatica.auth_service.config;
+
+import com.merufureku.aromatica.auth_service.admission.PriorityAdmissionDataSource;
+import com.merufureku.aromatica.auth_service.admission.PriorityAdmissionQueue;
+import com.merufureku.aromatica.auth_service.admission.RequestPriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.merufureku.aromatica.auth_service.admission.RequestPriority.BULK;
+import static com.merufureku.aromatica.auth_service.admission.RequestPriority.CRITICAL;
+import static com.merufureku.aromatica.auth_service.admission.RequestPriority.STANDARD;
+
+/**
+ * Priority admission gates: one for request threads, enforced by {@link PriorityAdmissionFilter},
+ * and one for database connections, enforced by wrapping the data source.
+ */
+@Configuration
+public class AdmissionConfig {
+
+    public static final String REQUEST_GATE = "requests";
+    public static final String DATABASE_GATE = "database";
+
+    @Bean
+    public PriorityAdmissionQueue requestAdmissionQueue(MeterRegistry meterRegistry,
+                                                        @Value("${admission.requests.capacity:120}") int capacity,
+                                                        @Value("${admission.requests.reserved.critical:30}") int criticalReserve,
+                                                        @Value("${admission.requests.reserved.standard:20}") int standardReserve,
+                                                        @Value("${admission.queue.critical.max-waiting:40}") int criticalQueue,
+                                                        @Value("${admission.queue.critical.max-wait-ms:2000}") long criticalWaitMs,
+                                                        @Value("${admission.queue.standard.max-waiting:20}") int standardQueue,
+                                                        @Value("${admission.queue.standard.max-wait-ms:500}") long standardWaitMs,
+                                                        @Value("${admission.queue.bulk.max-waiting:10}") int bulkQueue,
+                                                        @Value("${admission.queue.bulk.max-wait-ms:100}") long bulkWaitMs) {
+        return new PriorityAdmissionQueue(REQUEST_GATE, capacity, tiers(
+                criticalReserve, criticalQueue, criticalWaitMs,
+                standardReserve, standardQueue, standardWaitMs,
+                bulkQueue, bulkWaitMs), meterRegistry);
+    }
+
+    @Bean
+    public PriorityAdmissionQueue databaseAdmissionQueue(MeterRegistry meterRegistry,
+                                                         @Value("${admission.database.capacity:${spring.datasource.hikari.maximum-pool-size:10}}") int capacity,
+                                                         @Value("${admission.database.reserved.critical:2}") int criticalReserve,
+                                                         @Value("${admission.database.reserved.standard:2}") int standardReserve,
+                                                         @Value("${admission.queue.critical.max-waiting:40}") int criticalQueue,
+                                                         @Value("${admission.queue.critical.max-wait-ms:2000}") long criticalWaitMs,
+                                                         @Value("${admission.queue.standard.max-waiting:20}") int standardQueue,
+                                                         @Value("${admission.queue.standard.max-wait-ms:500}") long standardWaitMs,
+                                                         @Value("${admission.queue.bulk.max-waiting:10}") int bulkQueue,
+                                                         @Value("${admission.queue.bulk.max-wait-ms:100}") long bulkWaitMs) {
+        return new PriorityAdmissionQueue(DATABASE_GATE, capacity, tiers(
+                criticalReserve, criticalQueue, criticalWaitMs,
+                standardReserve, standardQueue, standardWaitMs,
+                bulkQueue, bulkWaitMs), meterRegistry);
+    }
+
+    /**
+     * Static and lazy so that wrapping the data source does not pull the meter registry and
+     * everything behind it into early initialization.
+     */
+    @Bean
+    public static BeanPostProcessor priorityAdmissionDataSourcePostProcessor(
+            @Qualifier("databaseAdmissionQueue") ObjectProvider<PriorityAdmissionQueue> databaseAdmissionQueue) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof PriorityAdmissionDataSource)) {
+                    return new PriorityAdmissionDataSource(dataSource, databaseAdmissionQueue::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static Map<RequestPriority, PriorityAdmissionQueue.Tier> tiers(int criticalReserve, int criticalQueue, long criticalWaitMs,
+                                                                           int standardReserve, int standardQueue, long standardWaitMs,
+                                                                           int bulkQueue, long bulkWaitMs) {
+        var tiers = new EnumMap<RequestPriority, PriorityAdmissionQueue.Tier>(RequestPriority.class);
+        tiers.put(CRITICAL, new PriorityAdmissionQueue.Tier(criticalReserve, criticalQueue, Duration.ofMillis(criticalWaitMs)));
+        tiers.put(STANDARD, new PriorityAdmissionQueue.Tier(standardReserve, standardQueue, Duration.ofMillis(standardWaitMs)));
+        tiers.put(BULK, new PriorityAdmissionQueue.Tier(0, bulkQueue, Duration.ofMillis(bulkWaitMs)));
+        return tiers;
+    }
+}
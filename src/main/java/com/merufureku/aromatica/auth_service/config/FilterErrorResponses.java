@@ -0,0 +1,42 @@
+package com.merufureku.aromatica.auth_service.config;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.RETRY_AFTER_SECONDS;
+
+/**
+ * JSON error bodies for the security filters, which run before the {@code ExceptionAdvisor}
+ * can handle anything.
+ */
+final class FilterErrorResponses {
+
+    private FilterErrorResponses() {
+    }
+
+    /**
+     * 503 with a {@code Retry-After}, for requests shed under load.
+     */
+    static void sendOverloaded(HttpServletResponse response, String path) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS));
+        send(response, HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please try again later.", path);
+    }
+
+    static void send(HttpServletResponse response, HttpStatus status, String message, String path) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType("application/json");
+        response.getWriter().write(
+                String.format(
+                        "{\"status\":%d,\"error\":\"%s\",\"message\":\"%s\",\"path\":\"%s\"}",
+                        status.value(), status.getReasonPhrase(), message, escape(path)
+                )
+        );
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -1,5 +1,6 @@
 package com.merufureku.aromatica.auth_service.config;
 
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
@@ -11,11 +12,13 @@ import javax.sql.DataSource;
 public class JpaConfig {
 
     @Bean
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource, JpaProperties jpaProperties) {
         var emf = new LocalContainerEntityManagerFactoryBean();
         emf.setDataSource(dataSource);
         emf.setPackagesToScan("com.merufureku.aromatica.auth_service.dao.entity");
         emf.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        // Pass spring.jpa.properties.* (JDBC batching and friends) through to Hibernate
+        emf.setJpaPropertyMap(jpaProperties.getProperties());
         return emf;
     }
 }
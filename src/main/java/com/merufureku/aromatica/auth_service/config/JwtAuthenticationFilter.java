@@ -1,30 +1,32 @@
 package com.merufureku.aromatica.auth_service.config;
 
+import com.merufureku.aromatica.auth_service.admission.AdmissionRejectedException;
 import com.merufureku.aromatica.auth_service.helper.TokenHelper;
-import com.merufureku.aromatica.auth_service.utilities.TokenUtility;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
 
-import static com.merufureku.aromatica.auth_service.constants.AuthConstants.ACCESS_TOKEN;
-
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final TokenUtility tokenUtility;
+    private final RequestClaimsResolver claimsResolver;
     private final TokenHelper tokenHelper;
 
-    public JwtAuthenticationFilter(TokenUtility tokenUtility, TokenHelper tokenHelper) {
-        this.tokenUtility = tokenUtility;
+    public JwtAuthenticationFilter(RequestClaimsResolver claimsResolver, TokenHelper tokenHelper) {
+        this.claimsResolver = claimsResolver;
         this.tokenHelper = tokenHelper;
     }
 
@@ -33,29 +35,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
-        var authHeader = request.getHeader("Authorization");
+        var token = RequestClaimsResolver.bearerToken(request);
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (token == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        if (request.getServletPath().equals("/auth/refresh/access-token")) {
+        if (RequestClaimsResolver.isRefreshRequest(request)) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        var token = authHeader.substring(7);
         try {
 
-            var claims = tokenUtility.parseToken(token, ACCESS_TOKEN);
+            // Verified at most once per request, the rate limit may already have done it
+            var claims = claimsResolver.resolve(request);
+            if (claims == null) {
+                SecurityContextHolder.clearContext();
+                filterChain.doFilter(request, response);
+                return;
+            }
 
             // Validate token
             var userId = claims.get("userId", Integer.class);
-            var jti = claims.getId();
             var role = claims.get("role", String.class);
 
-            tokenHelper.validateToken(userId, jti, token, ACCESS_TOKEN);
+            tokenHelper.validateAccessToken(claims, token);
 
             // Build authorities (ROLE_ prefix is important in Spring Security)
             var authorities =
@@ -68,10 +74,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Set into security context
             SecurityContextHolder.getContext().setAuthentication(authentication);
         }
+        catch (DataAccessException | CannotCreateTransactionException e) {
+            // The token could not be checked, that is no reason to tell the client it is invalid
+            SecurityContextHolder.clearContext();
+            sendDataAccessError(response, request.getRequestURI(), e);
+            return;
+        }
         catch (Exception e) {
             SecurityContextHolder.clearContext();
         }
 
         filterChain.doFilter(request, response);
     }
+
+    // Same mapping as the ExceptionAdvisor, which does not see exceptions thrown in filters
+    private static void sendDataAccessError(HttpServletResponse response, String path, RuntimeException e) throws IOException {
+        if (NestedExceptionUtils.getRootCause(e) instanceof AdmissionRejectedException) {
+            FilterErrorResponses.sendOverloaded(response, path);
+            return;
+        }
+        FilterErrorResponses.send(response, HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error", path);
+    }
 }
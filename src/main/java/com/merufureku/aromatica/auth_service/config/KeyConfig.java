@@ -13,4 +13,26 @@ public class KeyConfig {
 
     @Value("${jwt.refresh.secret.key}")
     private String jwtRefreshSecretKey;
+
+    // Retired secrets that are still accepted for verification while their tokens expire
+    @Value("${jwt.access.secret.previous-keys:}")
+    private String[] jwtAccessPreviousKeys;
+
+    @Value("${jwt.refresh.secret.previous-keys:}")
+    private String[] jwtRefreshPreviousKeys;
+
+    // HS256 signs access tokens with the shared secret, ES256 with the key pair below
+    @Value("${jwt.access.signing.algorithm:HS256}")
+    private String jwtAccessSigningAlgorithm;
+
+    // PKCS#8 private key and X.509 public key, PEM or bare Base64
+    @Value("${jwt.access.signing.private-key:}")
+    private String jwtAccessPrivateKey;
+
+    @Value("${jwt.access.signing.public-key:}")
+    private String jwtAccessPublicKey;
+
+    // Retired public keys still published and accepted while their tokens expire
+    @Value("${jwt.access.signing.previous-public-keys:}")
+    private String[] jwtAccessPreviousPublicKeys;
 }
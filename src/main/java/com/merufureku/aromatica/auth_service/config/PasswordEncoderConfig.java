@@ -1,15 +1,91 @@
 package com.merufureku.aromatica.auth_service.config;
 
+import com.merufureku.aromatica.auth_service.utilities.PasswordCostCalibrator;
+import com.merufureku.aromatica.auth_service.utilities.PasswordHashingExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * The one {@link PasswordEncoder} of the service. New hashes are written with the configured
+ * algorithm and prefixed with its id, e.g. {@code {argon2}...}. Hashes without a prefix
+ * predate this and are read as BCrypt.
+ * <p>
+ * {@link PasswordEncoder#upgradeEncoding} reports hashes made with another algorithm or with
+ * weaker parameters, which lets login rehash them in place. With calibration enabled the cost
+ * (BCrypt strength or Argon2 iterations) is measured at startup instead of configured, and
+ * stored hashes converge to it the same way.
+ */
 @Configuration
 public class PasswordEncoderConfig {
 
+    private final Logger logger = LogManager.getLogger(this.getClass());
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    private static final int BCRYPT_MAX_STRENGTH = 16;
+    private static final int ARGON2_MAX_ITERATIONS = 10;
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(PasswordHashingConfig passwordHashingConfig,
+                                           PasswordHashingExecutor passwordHashingExecutor,
+                                           MeterRegistry meterRegistry) {
+        var algorithm = passwordHashingConfig.getAlgorithm().trim().toLowerCase();
+        if (!BCRYPT.equals(algorithm) && !ARGON2.equals(algorithm)) {
+            throw new IllegalArgumentException("Unsupported password encoder: " + algorithm);
+        }
+
+        var bcryptStrength = passwordHashingConfig.getBcryptStrength();
+        var argon2Iterations = passwordHashingConfig.getArgon2Iterations();
+
+        if (passwordHashingConfig.isCalibrationEnabled()) {
+            var calibrator = new PasswordCostCalibrator(
+                    Duration.ofMillis(passwordHashingConfig.getCalibrationBudgetMillis()),
+                    passwordHashingConfig.getCalibrationSamples());
+
+            if (BCRYPT.equals(algorithm)) {
+                bcryptStrength = calibrator.calibrate(BCRYPT, BCryptPasswordEncoder::new,
+                        passwordHashingConfig.getCalibrationBcryptMinStrength(), BCRYPT_MAX_STRENGTH);
+            } else {
+                argon2Iterations = calibrator.calibrate(ARGON2,
+                        iterations -> argon2(passwordHashingConfig, iterations),
+                        passwordHashingConfig.getCalibrationArgon2MinIterations(), ARGON2_MAX_ITERATIONS);
+            }
+        }
+
+        var cost = BCRYPT.equals(algorithm) ? bcryptStrength : argon2Iterations;
+        Gauge.builder("password.hashing.cost", () -> cost)
+                .description("BCrypt strength or Argon2 iterations used for new hashes")
+                .tag("algorithm", algorithm)
+                .register(meterRegistry);
+
+        var bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        var delegating = new DelegatingPasswordEncoder(algorithm,
+                Map.of(BCRYPT, bcrypt, ARGON2, argon2(passwordHashingConfig, argon2Iterations)));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        logger.info("Encoding new passwords with {} at cost {}", algorithm, cost);
+
+        return new OffloadingPasswordEncoder(delegating, passwordHashingExecutor);
+    }
+
+    private static Argon2PasswordEncoder argon2(PasswordHashingConfig passwordHashingConfig, int iterations) {
+        return new Argon2PasswordEncoder(
+                passwordHashingConfig.getArgon2SaltLength(),
+                passwordHashingConfig.getArgon2HashLength(),
+                passwordHashingConfig.getArgon2Parallelism(),
+                passwordHashingConfig.getArgon2MemoryKib(),
+                iterations);
     }
-}
\ No newline at end of file
+}
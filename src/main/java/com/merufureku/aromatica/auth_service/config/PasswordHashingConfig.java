@@ -0,0 +1,46 @@
+package com.merufureku.aromatica.auth_service.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Getter
+@Service
+public class PasswordHashingConfig {
+
+    @Value("${password.encoder.algorithm:bcrypt}")
+    private String algorithm;
+
+    @Value("${password.encoder.bcrypt.strength:12}")
+    private int bcryptStrength;
+
+    @Value("${password.encoder.argon2.salt-length:16}")
+    private int argon2SaltLength;
+
+    @Value("${password.encoder.argon2.hash-length:32}")
+    private int argon2HashLength;
+
+    @Value("${password.encoder.argon2.parallelism:1}")
+    private int argon2Parallelism;
+
+    @Value("${password.encoder.argon2.memory-kib:19456}")
+    private int argon2MemoryKib;
+
+    @Value("${password.encoder.argon2.iterations:2}")
+    private int argon2Iterations;
+
+    @Value("${password.encoder.calibration.enabled:false}")
+    private boolean calibrationEnabled;
+
+    @Value("${password.encoder.calibration.budget-ms:150}")
+    private long calibrationBudgetMillis;
+
+    @Value("${password.encoder.calibration.samples:3}")
+    private int calibrationSamples;
+
+    @Value("${password.encoder.calibration.bcrypt-min-strength:10}")
+    private int calibrationBcryptMinStrength;
+
+    @Value("${password.encoder.calibration.argon2-min-iterations:2}")
+    private int calibrationArgon2MinIterations;
+}
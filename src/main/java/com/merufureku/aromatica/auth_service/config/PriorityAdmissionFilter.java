@@ -0,0 +1,132 @@
+package com.merufureku.aromatica.auth_service.config;
+
+import com.merufureku.aromatica.auth_service.admission.PriorityAdmissionQueue;
+import com.merufureku.aromatica.auth_service.admission.RequestPriority;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Classifies every request into a {@link RequestPriority} tier and admits it through the request
+ * gate. The tier stays bound to the thread for the rest of the request so the database gate can
+ * see it.
+ * <p>
+ * Critical endpoints are configured as {@code METHOD path}. The tier is picked before the token
+ * is verified, so a request only counts as critical when it carries something shaped like a
+ * JWT; anything else is left at STANDARD and cannot jump the queue with a made-up header.
+ */
+@Component
+public class PriorityAdmissionFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LogManager.getLogger(PriorityAdmissionFilter.class);
+
+    private final PriorityAdmissionQueue admissionQueue;
+    // Path to the methods that are critical on it
+    private final Map<String, Set<String>> criticalEndpoints;
+    private final Set<String> bulkPaths;
+
+    public PriorityAdmissionFilter(@Qualifier("requestAdmissionQueue") PriorityAdmissionQueue admissionQueue,
+                                   @Value("${admission.critical-endpoints:GET /auth/me,POST /auth/refresh/access-token}") Set<String> criticalEndpoints,
+                                   @Value("${admission.bulk-paths:/login,/register,/auth/me/change-password}") Set<String> bulkPaths) {
+        this.admissionQueue = admissionQueue;
+        this.criticalEndpoints = parseEndpoints(criticalEndpoints);
+        this.bulkPaths = Set.copyOf(bulkPaths);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        var priority = classify(request);
+        boolean admitted;
+        try {
+            admitted = admissionQueue.acquire(priority);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+
+        if (!admitted) {
+            logger.debug("Shedding {} request to {}", priority, request.getServletPath());
+            FilterErrorResponses.sendOverloaded(response, request.getRequestURI());
+            return;
+        }
+
+        RequestPriority.setCurrent(priority);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestPriority.clearCurrent();
+            admissionQueue.release();
+        }
+    }
+
+    RequestPriority classify(HttpServletRequest request) {
+        var path = request.getServletPath();
+
+        if (bulkPaths.contains(path)) {
+            return RequestPriority.BULK;
+        }
+        var criticalMethods = criticalEndpoints.get(path);
+        if (criticalMethods != null && criticalMethods.contains(request.getMethod())
+                && isWellFormedJwt(RequestClaimsResolver.bearerToken(request))) {
+            return RequestPriority.CRITICAL;
+        }
+        return RequestPriority.STANDARD;
+    }
+
+    /**
+     * Three non-empty base64url segments separated by dots. Says nothing about the signature,
+     * it only keeps arbitrary headers out of the critical tier.
+     */
+    static boolean isWellFormedJwt(String token) {
+        if (token == null) {
+            return false;
+        }
+        var segments = 1;
+        var segmentLength = 0;
+        for (int i = 0; i < token.length(); i++) {
+            var c = token.charAt(i);
+            if (c == '.') {
+                if (segmentLength == 0 || ++segments > 3) {
+                    return false;
+                }
+                segmentLength = 0;
+            } else if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+                segmentLength++;
+            } else {
+                return false;
+            }
+        }
+        return segments == 3 && segmentLength > 0;
+    }
+
+    private static Map<String, Set<String>> parseEndpoints(Set<String> endpoints) {
+        var methodsByPath = new HashMap<String, Set<String>>();
+        for (var endpoint : endpoints) {
+            var parts = endpoint.trim().split("\\s+");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected 'METHOD path', got: " + endpoint);
+            }
+            methodsByPath.computeIfAbsent(parts[1], path -> new HashSet<>()).add(parts[0].toUpperCase());
+        }
+
+        var copy = new HashMap<String, Set<String>>();
+        methodsByPath.forEach((path, methods) -> copy.put(path, Set.copyOf(methods)));
+        return Map.copyOf(copy);
+    }
+}
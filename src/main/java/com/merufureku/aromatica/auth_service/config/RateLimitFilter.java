@@ -1,9 +1,11 @@
 package com.merufureku.aromatica.auth_service.config;
 
-import com.merufureku.aromatica.auth_service.utilities.TokenUtility;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
+import com.merufureku.aromatica.auth_service.ratelimit.ClientAddressParser;
+import com.merufureku.aromatica.auth_service.ratelimit.RateLimitBackend;
+import com.merufureku.aromatica.auth_service.ratelimit.RateLimitKey;
+import com.merufureku.aromatica.auth_service.ratelimit.RateLimitPolicy;
+import com.merufureku.aromatica.auth_service.ratelimit.RateLimitPolicyRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,31 +17,29 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
-import static com.merufureku.aromatica.auth_service.constants.AuthConstants.ACCESS_TOKEN;
-import static com.merufureku.aromatica.auth_service.constants.AuthConstants.REFRESH_TOKEN;
 
+/**
+ * Applies the rate-limit policies of {@link RateLimitPolicyRegistry}. The policy is matched
+ * once per request on the path within the context.
+ */
 @Component
 public class RateLimitFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LogManager.getLogger(RateLimitFilter.class);
 
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
-    private final TokenUtility tokenUtility;
+    // One probe per request thread, see RateLimitKey
+    private static final ThreadLocal<RateLimitKey> PROBE = ThreadLocal.withInitial(RateLimitKey::new);
 
-    // Rate limit configurations per endpoint pattern
-    private static final Map<String, RateLimitConfig> ENDPOINT_LIMITS = Map.of(
-            "/login", new RateLimitConfig(5, Duration.ofMinutes(1), RateLimitScope.IP),
-            "/register", new RateLimitConfig(3, Duration.ofMinutes(5), RateLimitScope.IP),
-            "/auth/refresh", new RateLimitConfig(10, Duration.ofMinutes(1), RateLimitScope.IP),
-            "/auth/me/change-password", new RateLimitConfig(3, Duration.ofMinutes(5), RateLimitScope.USER)
-    );
+    private final RateLimitPolicyRegistry policyRegistry;
+    private final RateLimitBackend rateLimitBackend;
+    private final RequestClaimsResolver claimsResolver;
+    private final MeterRegistry meterRegistry;
 
-    public RateLimitFilter(TokenUtility tokenUtility) {
-        this.tokenUtility = tokenUtility;
+    public RateLimitFilter(RateLimitPolicyRegistry policyRegistry, RateLimitBackend rateLimitBackend, RequestClaimsResolver claimsResolver, MeterRegistry meterRegistry) {
+        this.policyRegistry = policyRegistry;
+        this.rateLimitBackend = rateLimitBackend;
+        this.claimsResolver = claimsResolver;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -49,113 +49,46 @@ public class RateLimitFilter extends OncePerRequestFilter {
             FilterChain filterChain
     ) throws ServletException, IOException {
 
-        String path = request.getRequestURI()
-                .replace(request.getContextPath(), "");
-
-        RateLimitConfig config = findMatchingConfig(path);
+        var policy = policyRegistry.match(request.getServletPath());
 
-        if (config != null) {
-            String key = resolveKey(request, path, config.scope);
-            Bucket bucket = resolveBucket(key, config);
+        if (policy != null) {
+            var key = resolveKey(request, policy, PROBE.get());
 
-            if (bucket.tryConsume(1)) {
+            if (rateLimitBackend.tryConsume(key, policy)) {
                 filterChain.doFilter(request, response);
             } else {
-                logger.warn("Rate limit exceeded: key={}, path={}", key, path);
-                sendRateLimitError(response, request.getRequestURI());
+                meterRegistry.counter("rate.limit.rejected", "policy", policy.path()).increment();
+                logger.debug("Rate limit exceeded: key={}, path={}", key, policy.path());
+                FilterErrorResponses.send(response, HttpStatus.TOO_MANY_REQUESTS,
+                        "Rate limit exceeded. Please try again later.", request.getRequestURI());
             }
         } else {
             filterChain.doFilter(request, response);
         }
     }
 
-    private RateLimitConfig findMatchingConfig(String path) {
-        for (Map.Entry<String, RateLimitConfig> entry : ENDPOINT_LIMITS.entrySet()) {
-            if (path.contains(entry.getKey())) {
-                return entry.getValue();
-            }
-        }
-        return null;
-    }
-
-    private String resolveKey(HttpServletRequest request, String path, RateLimitScope scope) {
-        return switch (scope) {
-            case IP -> "ip:" + getClientIP(request) + ":" + path;
+    private RateLimitKey resolveKey(HttpServletRequest request, RateLimitPolicy policy, RateLimitKey probe) {
+        return switch (policy.scope()) {
+            case IP -> clientKey(request, policy.ordinal(), probe);
             case USER -> {
-                String userId = extractUserId(request);
-                yield userId != null ? "user:" + userId + ":" + path
-                        : "ip:" + getClientIP(request) + ":" + path; // Fallback to IP
+                var userId = extractUserId(request);
+                yield userId != null ? probe.set(policy.ordinal(), RateLimitKey.SCOPE_USER, 0L, userId)
+                        : clientKey(request, policy.ordinal(), probe); // Fallback to IP
             }
-            case GLOBAL -> "global:" + path; // All users share same limit
+            case GLOBAL -> probe.set(policy.ordinal(), RateLimitKey.SCOPE_GLOBAL, 0L, 0L); // All users share same limit
         };
     }
 
-    private String extractUserId(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        String tokenType = request.getRequestURI().contains("/auth/refresh") ? REFRESH_TOKEN : ACCESS_TOKEN;
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            try {
-                String token = authHeader.substring(7);
-                var claims = tokenUtility.parseToken(token, tokenType);
-                Integer userId = claims.get("userId", Integer.class);
-                return userId != null ? userId.toString() : null;
-            } catch (Exception e) {
-                logger.debug("Failed to extract userId from token: {}", e.getMessage());
-                return null;
-            }
-        }
-        return null;
+    private RateLimitKey clientKey(HttpServletRequest request, int ordinal, RateLimitKey probe) {
+        return ClientAddressParser.fromHeaders(
+                request.getHeader("X-Forwarded-For"),
+                request.getHeader("X-Real-IP"),
+                request.getRemoteAddr(),
+                ordinal, probe);
     }
 
-    private Bucket resolveBucket(String key, RateLimitConfig config) {
-        return cache.computeIfAbsent(key, k -> createBucket(config));
+    private Integer extractUserId(HttpServletRequest request) {
+        var claims = claimsResolver.resolve(request);
+        return claims != null ? claims.get("userId", Integer.class) : null;
     }
-
-    private Bucket createBucket(RateLimitConfig config) {
-        Bandwidth limit = Bandwidth.classic(
-                config.capacity,
-                Refill.intervally(config.capacity, config.duration)
-        );
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
-    }
-
-    private String getClientIP(HttpServletRequest request) {
-        String xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader != null && !xfHeader.isEmpty()) {
-            return xfHeader.split(",")[0].trim();
-        }
-
-        String xrfHeader = request.getHeader("X-Real-IP");
-        if (xrfHeader != null && !xrfHeader.isEmpty()) {
-            return xrfHeader;
-        }
-
-        return request.getRemoteAddr();
-    }
-
-    private void sendRateLimitError(HttpServletResponse response, String path) throws IOException {
-        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-        response.setContentType("application/json");
-        response.getWriter().write(
-                String.format(
-                        "{\"status\":429,\"error\":\"Too Many Requests\"," +
-                                "\"message\":\"Rate limit exceeded. Please try again later.\"," +
-                                "\"path\":\"%s\"}",
-                        path
-                )
-        );
-    }
-
-    /**
-     * Rate limiting scope determines what is being limited
-     */
-    private enum RateLimitScope {
-        IP,      // Limit per IP address (for unauthenticated endpoints)
-        USER,    // Limit per user ID (for authenticated endpoints)
-        GLOBAL   // Limit total requests to endpoint (all users combined)
-    }
-
-    private record RateLimitConfig(long capacity, Duration duration, RateLimitScope scope) {}
-}
\ No newline at end of file
+}
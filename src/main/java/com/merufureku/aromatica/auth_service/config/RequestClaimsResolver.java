@@ -0,0 +1,82 @@
+package com.merufureku.aromatica.auth_service.config;
+
+import com.merufureku.aromatica.auth_service.exception.ServiceException;
+import com.merufureku.aromatica.auth_service.utilities.TokenUtility;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.ACCESS_TOKEN;
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.REFRESH_TOKEN;
+
+/**
+ * Parses and verifies the bearer token of a request at most once. The outcome, a failed
+ * verification included, is kept as a request attribute for every later filter that needs it,
+ * so the rate limit and the authentication filter share a single signature check.
+ */
+@Component
+public class RequestClaimsResolver {
+
+    private static final Logger logger = LogManager.getLogger(RequestClaimsResolver.class);
+
+    public static final String CLAIMS_ATTRIBUTE = RequestClaimsResolver.class.getName() + ".claims";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String REFRESH_PATH = "/auth/refresh/access-token";
+
+    // Marks a token that already failed verification on this request
+    private static final Object INVALID = new Object();
+
+    private final TokenUtility tokenUtility;
+
+    public RequestClaimsResolver(TokenUtility tokenUtility) {
+        this.tokenUtility = tokenUtility;
+    }
+
+    /**
+     * The verified claims of the request's bearer token, a refresh token on the refresh endpoint
+     * and an access token everywhere else.
+     *
+     * @return null if there is no bearer token or it does not verify
+     */
+    public Claims resolve(HttpServletRequest request) {
+        var memoized = request.getAttribute(CLAIMS_ATTRIBUTE);
+        if (memoized != null) {
+            return memoized instanceof Claims claims ? claims : null;
+        }
+
+        var token = bearerToken(request);
+        if (token == null) {
+            return null;
+        }
+
+        Claims claims = null;
+        try {
+            claims = tokenUtility.parseToken(token, tokenType(request));
+        } catch (ServiceException e) {
+            logger.debug("Bearer token failed verification on {}", request.getServletPath());
+        }
+
+        request.setAttribute(CLAIMS_ATTRIBUTE, claims != null ? claims : INVALID);
+        return claims;
+    }
+
+    public static String bearerToken(HttpServletRequest request) {
+        var authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        return authHeader.substring(BEARER_PREFIX.length());
+    }
+
+    public static boolean isRefreshRequest(HttpServletRequest request) {
+        return request.getServletPath().equals(REFRESH_PATH);
+    }
+
+    private static String tokenType(HttpServletRequest request) {
+        return isRefreshRequest(request) ? REFRESH_TOKEN : ACCESS_TOKEN;
+    }
+}
@@ -2,6 +2,7 @@ package com.merufureku.aromatica.auth_service.config;
 
 import com.merufureku.aromatica.auth_service.exception.CustomAccessDeniedHandler;
 import com.merufureku.aromatica.auth_service.exception.CustomAuthenticationEntryPoint;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -12,6 +13,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.filter.OncePerRequestFilter;
 
 @Configuration
 @EnableWebSecurity
@@ -20,12 +22,16 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final RateLimitFilter rateLimitFilter;
+    private final AdaptiveConcurrencyFilter adaptiveConcurrencyFilter;
+    private final PriorityAdmissionFilter priorityAdmissionFilter;
     private final CustomAccessDeniedHandler accessDeniedHandler;
     private final CustomAuthenticationEntryPoint authenticationEntryPoint;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, RateLimitFilter rateLimitFilter, CustomAccessDeniedHandler accessDeniedHandler, CustomAuthenticationEntryPoint authenticationEntryPoint) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, RateLimitFilter rateLimitFilter, AdaptiveConcurrencyFilter adaptiveConcurrencyFilter, PriorityAdmissionFilter priorityAdmissionFilter, CustomAccessDeniedHandler accessDeniedHandler, CustomAuthenticationEntryPoint authenticationEntryPoint) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.rateLimitFilter = rateLimitFilter;
+        this.adaptiveConcurrencyFilter = adaptiveConcurrencyFilter;
+        this.priorityAdmissionFilter = priorityAdmissionFilter;
         this.accessDeniedHandler = accessDeniedHandler;
         this.authenticationEntryPoint = authenticationEntryPoint;
     }
@@ -42,8 +48,13 @@ public class SecurityConfig {
                                 "/swagger-ui.html",
                                 "/login",
                                 "/register",
-                                "/auth/refresh/access-token").permitAll()
+                                "/auth/refresh/access-token",
+                                "/.well-known/jwks.json",
+                                "/actuator/health").permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        .requestMatchers("/admin/**").hasRole("ADMIN")
+                        // Called by the API gateway with its own GATEWAY account, never by end users
+                        .requestMatchers(HttpMethod.POST, "/auth/introspect/batch").hasRole("GATEWAY")
                         .anyRequest().authenticated()
                 )
                 .exceptionHandling(ex -> ex
@@ -52,9 +63,45 @@ public class SecurityConfig {
                 )
                 .addFilterBefore(rateLimitFilter,
                         UsernamePasswordAuthenticationFilter.class)
-                .addFilterBefore(jwtAuthenticationFilter,
-                        UsernamePasswordAuthenticationFilter.class);
+                // Only requests that passed their rate limit take an admission permit or count
+                // against the concurrency limit
+                .addFilterAfter(priorityAdmissionFilter,
+                        RateLimitFilter.class)
+                .addFilterAfter(adaptiveConcurrencyFilter,
+                        PriorityAdmissionFilter.class)
+                // Token validation may query the database, so it runs admitted and with its priority set
+                .addFilterAfter(jwtAuthenticationFilter,
+                        AdaptiveConcurrencyFilter.class);
 
         return http.build();
     }
+
+    // The filters below are beans only so they can be injected here; keep Boot from also
+    // registering them as servlet filters, which would run them outside the security chain
+
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+        return disabledRegistration(jwtAuthenticationFilter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        return disabledRegistration(rateLimitFilter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<PriorityAdmissionFilter> priorityAdmissionFilterRegistration() {
+        return disabledRegistration(priorityAdmissionFilter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdaptiveConcurrencyFilter> adaptiveConcurrencyFilterRegistration() {
+        return disabledRegistration(adaptiveConcurrencyFilter);
+    }
+
+    private static <T extends OncePerRequestFilter> FilterRegistrationBean<T> disabledRegistration(T filter) {
+        var registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
 }
@@ -0,0 +1,16 @@
+package com.merufureku.aromatica.auth_service.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Getter
+@Service
+public class TokenConfig {
+
+    @Value("${token.validation.stateless:false}")
+    private boolean statelessAccessValidation;
+
+    @Value("${token.revocation.max-entries:100000}")
+    private long revocationMaxEntries;
+}
@@ -7,4 +7,8 @@ public class AuthConstants {
 
     public static final int ACCESS_TOKEN_EXPIRATION_MINUTES = 15;
     public static final int REFRESH_TOKEN_EXPIRATION_DAYS = 7;
+
+    public static final int RETRY_AFTER_SECONDS = 1;
+
+    public static final int INTROSPECT_BATCH_MAX_TOKENS = 100;
 }
@@ -0,0 +1,34 @@
+package com.merufureku.aromatica.auth_service.controller;
+
+import com.merufureku.aromatica.auth_service.dto.responses.BaseResponse;
+import com.merufureku.aromatica.auth_service.dto.responses.RoleCatalogResponse;
+import com.merufureku.aromatica.auth_service.helper.RoleCatalog;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class AdminController {
+
+    private final RoleCatalog roleCatalog;
+
+    public AdminController(RoleCatalog roleCatalog) {
+        this.roleCatalog = roleCatalog;
+    }
+
+    /**
+     * Call after changing the roles table. The instance that serves the request reloads right
+     * away, the others pick the change up on their next scheduled refresh.
+     */
+    @PostMapping("/admin/roles/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reload the role catalog")
+    public BaseResponse<RoleCatalogResponse> reloadRoles() {
+        var roles = roleCatalog.reload();
+
+        return new BaseResponse<>(HttpStatus.OK.value(),
+                "Role catalog reloaded", new RoleCatalogResponse(roles));
+    }
+}
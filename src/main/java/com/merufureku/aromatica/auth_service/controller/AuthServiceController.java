@@ -111,6 +111,18 @@ public class AuthServiceController {
         return ResponseEntity.ok(response).getBody();
     }
 
+    @PostMapping("/auth/introspect/batch")
+    @Operation(summary = "Introspect a batch of access tokens")
+    public BaseResponse<IntrospectBatchResponse> introspectBatch(@Valid @RequestBody IntrospectBatchParam introspectBatchParam,
+                                                                 @RequestParam(name = "version", required = false, defaultValue = "1") int version,
+                                                                 @RequestParam(name = "correlationId", required = false, defaultValue = "") String correlationId) {
+        var baseParam = new BaseParam(version, correlationId);
+
+        var response = authServiceFactory.getService(version).introspectBatch(introspectBatchParam, baseParam);
+
+        return ResponseEntity.ok(response).getBody();
+    }
+
     private Integer getUserId(){
 
         return (Integer) SecurityContextHolder.getContext()
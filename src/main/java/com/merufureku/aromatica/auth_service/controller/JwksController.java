@@ -0,0 +1,48 @@
+package com.merufureku.aromatica.auth_service.controller;
+
+import com.merufureku.aromatica.auth_service.utilities.JsonWebKeys;
+import com.merufureku.aromatica.auth_service.utilities.JwtKeyRing;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the access token verification keys as a JWK Set, so other services can verify
+ * access tokens locally instead of calling this service.
+ */
+@RestController
+public class JwksController {
+
+    private final JwtKeyRing jwtKeyRing;
+    private final CacheControl cacheControl;
+
+    public JwksController(JwtKeyRing jwtKeyRing,
+                          @Value("${jwt.jwks.max-age-seconds:300}") long maxAgeSeconds) {
+        this.jwtKeyRing = jwtKeyRing;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    @Operation(summary = "Public keys for verifying access tokens")
+    public ResponseEntity<Map<String, List<Map<String, String>>>> jwks() {
+        var publicKeys = jwtKeyRing.publicKeys();
+        var keys = publicKeys.entrySet().stream()
+                .map(entry -> JsonWebKeys.toJwk(entry.getKey(), entry.getValue()))
+                .toList();
+
+        // The key ids are thumbprints, so together they identify this exact key set
+        var eTag = "\"" + Integer.toHexString(publicKeys.keySet().hashCode()) + "\"";
+
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(eTag)
+                .body(Map.of("keys", keys));
+    }
+}
@@ -17,15 +17,17 @@ import java.time.LocalDateTime;
 public class Token {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "token_id_seq")
+    @SequenceGenerator(name = "token_id_seq", sequenceName = "token_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Integer id;
 
     @Column(name = "user_id", nullable = false)
     private Integer userId;
 
-    @Column(name = "token")
-    private String token;
+    // SHA-256 of the compact JWT, the token itself is never stored
+    @Column(name = "token_hash", length = 32)
+    private byte[] tokenHash;
 
     @Column(name = "type")
     private String type;
@@ -39,8 +41,8 @@ public class Token {
     @Column(name = "expiration_dt")
     private LocalDateTime expirationDt;
 
-    @ManyToOne
-    @MapsId("userId")
-    @JoinColumn(name = "user_id")
+    // Read-only side of user_id, tokens are always written through userId
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", insertable = false, updatable = false)
     private Users user;
 }
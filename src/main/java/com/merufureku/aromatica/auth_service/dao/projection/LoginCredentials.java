@@ -0,0 +1,6 @@
+package com.merufureku.aromatica.auth_service.dao.projection;
+
+/**
+ * Everything a login needs from the user tables. roleName is null for a user without a role.
+ */
+public record LoginCredentials(Integer userId, String password, String roleName) {}
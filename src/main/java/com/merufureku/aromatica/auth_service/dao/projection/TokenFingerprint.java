@@ -0,0 +1,5 @@
+package com.merufureku.aromatica.auth_service.dao.projection;
+
+import java.time.LocalDateTime;
+
+public record TokenFingerprint(byte[] tokenHash, LocalDateTime expirationDt) {}
@@ -1,18 +1,49 @@
 package com.merufureku.aromatica.auth_service.dao.repository;
 
 import com.merufureku.aromatica.auth_service.dao.entity.Token;
+import com.merufureku.aromatica.auth_service.dao.projection.IssuedTokenFingerprint;
+import com.merufureku.aromatica.auth_service.dao.projection.TokenFingerprint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TokenRepository extends JpaRepository<Token, Integer> {
 
-    void deleteByUserId(Integer userId);
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Token t WHERE t.userId = :userId")
+    int deleteByUserId(@Param("userId") Integer userId);
 
-    void deleteByUserIdAndType(Integer userId, String string);
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Token t WHERE t.userId = :userId AND t.type = :type")
+    int deleteByUserIdAndType(@Param("userId") Integer userId, @Param("type") String type);
 
-    Optional<Token> findByUserIdAndJtiAndType(Integer userId, String token, String type);
+    @Query("SELECT new com.merufureku.aromatica.auth_service.dao.projection.TokenFingerprint(t.tokenHash, t.expirationDt) " +
+            "FROM Token t WHERE t.userId = :userId AND t.jti = :jti AND t.type = :type")
+    Optional<TokenFingerprint> findFingerprint(@Param("userId") Integer userId,
+                                               @Param("jti") String jti,
+                                               @Param("type") String type);
+
+    @Query("SELECT new com.merufureku.aromatica.auth_service.dao.projection.IssuedTokenFingerprint(t.jti, t.userId, t.tokenHash, t.expirationDt) " +
+            "FROM Token t WHERE t.type = :type AND t.jti IN :jtis")
+    List<IssuedTokenFingerprint> findFingerprintsByJtis(@Param("jtis") Collection<String> jtis,
+                                                        @Param("type") String type);
+
+    // SKIP LOCKED lets replicas reaping at the same time take disjoint batches instead of queueing
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM token WHERE id IN " +
+            "(SELECT id FROM token WHERE expiration_dt < :cutoff LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
 
 }
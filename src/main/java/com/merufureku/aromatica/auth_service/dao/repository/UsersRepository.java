@@ -1,11 +1,15 @@
 package com.merufureku.aromatica.auth_service.dao.repository;
 
 import com.merufureku.aromatica.auth_service.dao.entity.Users;
+import com.merufureku.aromatica.auth_service.dao.projection.LoginCredentials;
+import com.merufureku.aromatica.auth_service.dto.responses.MyDetailsResponse;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -20,4 +24,23 @@ public interface UsersRepository extends JpaRepository<Users, Integer> {
 
     Optional<Users> findByUsername(String username);
 
+    // Constructor expression: the response is built straight from the row, no entities are managed.
+    // Read-only, so Hibernate runs it with flushing disabled.
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.merufureku.aromatica.auth_service.dto.responses.MyDetailsResponse(" +
+            "u.id, d.email, d.firstName, d.lastName, ur.id.roleId) " +
+            "FROM Users u JOIN u.userDetails d JOIN u.userRoles ur " +
+            "WHERE u.id = :id")
+    Optional<MyDetailsResponse> findMyDetails(@Param("id") Integer id);
+
+    @Query("SELECT new com.merufureku.aromatica.auth_service.dao.projection.LoginCredentials(u.id, u.password, r.roleName) " +
+            "FROM Users u LEFT JOIN u.userRoles ur LEFT JOIN Roles r ON r.roleId = ur.id.roleId " +
+            "WHERE u.username = :username")
+    Optional<LoginCredentials> findLoginCredentials(@Param("username") String username);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Users u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Integer id, @Param("password") String password);
+
 }
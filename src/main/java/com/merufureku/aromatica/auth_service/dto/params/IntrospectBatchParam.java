@@ -0,0 +1,16 @@
+package com.merufureku.aromatica.auth_service.dto.params;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.INTROSPECT_BATCH_MAX_TOKENS;
+
+public record IntrospectBatchParam(
+
+        @NotEmpty(message = "Tokens are required")
+        @Size(max = INTROSPECT_BATCH_MAX_TOKENS, message = "Too many tokens in one batch")
+        List<@NotBlank(message = "Token cannot be blank") String> tokens
+) {}
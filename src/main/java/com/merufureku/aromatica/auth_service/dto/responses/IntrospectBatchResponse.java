@@ -0,0 +1,14 @@
+package com.merufureku.aromatica.auth_service.dto.responses;
+
+import java.util.List;
+
+/**
+ * One result per requested token, in request order. userId and role are only set for active tokens.
+ */
+public record IntrospectBatchResponse(List<Result> results) {
+
+    public record Result(boolean active, Integer userId, String role) {
+
+        public static final Result INACTIVE = new Result(false, null, null);
+    }
+}
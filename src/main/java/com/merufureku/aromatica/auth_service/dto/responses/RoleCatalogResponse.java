@@ -0,0 +1,3 @@
+package com.merufureku.aromatica.auth_service.dto.responses;
+
+public record RoleCatalogResponse(int roles){}
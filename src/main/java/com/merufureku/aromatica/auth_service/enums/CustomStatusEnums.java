@@ -13,7 +13,9 @@ public enum CustomStatusEnums {
     ROLE_NOT_FOUND(4004, "Role not found", HttpStatus.NOT_FOUND),
     CONFIRM_PASSWORD_MISMATCH(4005, "Confirm password mismatch", HttpStatus.BAD_REQUEST),
     SAME_OLD_AND_NEW_PASSWORD(4006, "Old and new password cannot be the same", HttpStatus.BAD_REQUEST),
-    INVALID_PASSWORD(4007, "Incorrect old password", HttpStatus.BAD_REQUEST);
+    INVALID_PASSWORD(4007, "Incorrect old password", HttpStatus.BAD_REQUEST),
+    PASSWORD_HASHING_BUSY(5000, "Server is busy, please try again later", HttpStatus.SERVICE_UNAVAILABLE),
+    DATABASE_BUSY(5001, "Server is busy, please try again later", HttpStatus.SERVICE_UNAVAILABLE);
 
     private final int statusCode;
     private final String message;
@@ -1,9 +1,15 @@
 package com.merufureku.aromatica.auth_service.exception;
 
+import com.merufureku.aromatica.auth_service.admission.AdmissionRejectedException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -14,6 +20,9 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.RETRY_AFTER_SECONDS;
+import static com.merufureku.aromatica.auth_service.enums.CustomStatusEnums.DATABASE_BUSY;
+
 @RestControllerAdvice
 public class ExceptionAdvisor extends Exception{
 
@@ -31,7 +40,24 @@ public class ExceptionAdvisor extends Exception{
                 LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME)
         );
 
-        return new ResponseEntity<>(errorResponse, errorType.getHttpStatus());
+        var headers = new HttpHeaders();
+        if (errorType.getHttpStatus() == HttpStatus.SERVICE_UNAVAILABLE) {
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS));
+        }
+
+        return new ResponseEntity<>(errorResponse, headers, errorType.getHttpStatus());
+    }
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessException.class})
+    public ResponseEntity<?> handleDataAccessException(
+            RuntimeException ex,
+            HttpServletRequest request
+    ) {
+        // A connection refused by the database admission gate is overload, not a server error
+        if (NestedExceptionUtils.getRootCause(ex) instanceof AdmissionRejectedException) {
+            return handleCustomException(new ServiceException(DATABASE_BUSY), request);
+        }
+        return genericErrorException();
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -105,6 +131,22 @@ public class ExceptionAdvisor extends Exception{
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    // Thrown by @PreAuthorize, after the security filters, so the AccessDeniedHandler never sees it
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ErrorResponse> handleAccessDenied(
+            AccessDeniedException ex,
+            HttpServletRequest request) {
+        var errorResponse = new ErrorResponse(
+                HttpStatus.FORBIDDEN.value(),
+                HttpStatus.FORBIDDEN.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI(),
+                LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME)
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.FORBIDDEN);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> genericErrorException(){
         return new ResponseEntity<>(
@@ -4,15 +4,15 @@ import com.merufureku.aromatica.auth_service.dao.entity.UserDetails;
 import com.merufureku.aromatica.auth_service.dao.entity.UserRoles;
 import com.merufureku.aromatica.auth_service.dao.entity.UserRolesPK;
 import com.merufureku.aromatica.auth_service.dao.entity.Users;
-import com.merufureku.aromatica.auth_service.dao.repository.RolesRepository;
 import com.merufureku.aromatica.auth_service.dao.repository.UsersRepository;
 import com.merufureku.aromatica.auth_service.dto.params.ChangePasswordParam;
 import com.merufureku.aromatica.auth_service.dto.params.RegisterParam;
 import com.merufureku.aromatica.auth_service.dto.params.UpdateUserDetailsParam;
 import com.merufureku.aromatica.auth_service.exception.ServiceException;
+import com.merufureku.aromatica.auth_service.scheduler.LastLoginBuffer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -27,11 +27,15 @@ public class AuthServiceHelper {
     private final Logger logger = LogManager.getLogger(this.getClass());
 
     private final UsersRepository usersRepository;
-    private final RolesRepository rolesRepository;
+    private final RoleCatalog roleCatalog;
+    private final PasswordEncoder passwordEncoder;
+    private final LastLoginBuffer lastLoginBuffer;
 
-    public AuthServiceHelper(UsersRepository usersRepository, RolesRepository rolesRepository) {
+    public AuthServiceHelper(UsersRepository usersRepository, RoleCatalog roleCatalog, PasswordEncoder passwordEncoder, LastLoginBuffer lastLoginBuffer) {
         this.usersRepository = usersRepository;
-        this.rolesRepository = rolesRepository;
+        this.roleCatalog = roleCatalog;
+        this.passwordEncoder = passwordEncoder;
+        this.lastLoginBuffer = lastLoginBuffer;
     }
 
     public Users saveUser(RegisterParam newUserParam){
@@ -39,14 +43,14 @@ public class AuthServiceHelper {
 
         var timeNow = LocalDateTime.now();
 
-        var bCryptPasswordEncoder = new BCryptPasswordEncoder(12);
-
-        var roles = rolesRepository.findByRoleName("USER")
-                .orElseThrow(() -> new ServiceException(ROLE_NOT_FOUND));
+        var roleId = roleCatalog.roleId("USER");
+        if (roleId == null){
+            throw new ServiceException(ROLE_NOT_FOUND);
+        }
 
         var newUser = Users.builder()
                 .username(newUserParam.username())
-                .password(bCryptPasswordEncoder.encode(newUserParam.password()))
+                .password(passwordEncoder.encode(newUserParam.password()))
                 .createdAt(timeNow)
                 .lastPasswordSetDt(timeNow)
                 .build();
@@ -62,7 +66,7 @@ public class AuthServiceHelper {
         // Create User Role
         var userRolesPK = UserRolesPK.builder()
                 .userId(newUser.getId())
-                .roleId(roles.getRoleId())
+                .roleId(roleId)
                 .build();
         var userRoles = UserRoles.builder()
                 .id(userRolesPK)
@@ -75,9 +79,31 @@ public class AuthServiceHelper {
         return usersRepository.save(newUser);
     }
 
-    public void updateLastLoginDate(Users user){
-        user.setLastLogin(LocalDateTime.now());
-        usersRepository.save(user);
+    /**
+     * Rehashes the password when the stored hash uses an older algorithm or weaker parameters.
+     * Nothing is saved; pass the result on to {@link #updateLastLoginDate}.
+     *
+     * @return the new hash, or null if the stored one is current
+     */
+    public String upgradePasswordHash(Integer userId, String storedHash, String rawPassword){
+        if (!passwordEncoder.upgradeEncoding(storedHash)){
+            return null;
+        }
+
+        logger.info("Upgrading password hash for user with ID: {}", userId);
+        return passwordEncoder.encode(rawPassword);
+    }
+
+    /**
+     * Buffers the last-login timestamp for the next batched write once the login commits; only
+     * an upgraded hash is written right away, in the login transaction.
+     */
+    public void updateLastLoginDate(Integer userId, String upgradedPasswordHash){
+        lastLoginBuffer.record(userId, LocalDateTime.now());
+
+        if (upgradedPasswordHash != null){
+            usersRepository.updatePassword(userId, upgradedPasswordHash);
+        }
     }
 
     public Users updateUser(Users user, UpdateUserDetailsParam param){
@@ -112,10 +138,12 @@ public class AuthServiceHelper {
             throw new ServiceException(USER_HAS_NO_ROLES);
         }
 
-        var roleId = userRoles.getId().getRoleId();
-        var roles = rolesRepository.findById(roleId).orElseThrow(() -> new ServiceException(USER_HAS_NO_ROLES));
+        var roleName = roleCatalog.roleName(userRoles.getId().getRoleId());
+        if (roleName == null){
+            throw new ServiceException(USER_HAS_NO_ROLES);
+        }
 
-        return roles.getRoleName();
+        return roleName;
     }
 
     private static <T> void setIfNotNull(Supplier<T> source, Consumer<T> target) {
@@ -0,0 +1,117 @@
+package com.merufureku.aromatica.auth_service.helper;
+
+import com.merufureku.aromatica.auth_service.dao.repository.RolesRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The roles table held in memory, so registration, login and token refresh resolve roles
+ * without a query.
+ * <p>
+ * Roles are loaded once at startup and published as an immutable snapshot: names are indexed
+ * by role id in a plain array, ids are looked up by name in a map. Every instance re-reads the
+ * table on a fixed interval, so a change reaches all of them within one interval;
+ * {@link #reload()} applies it to this instance right away.
+ */
+@Component
+public class RoleCatalog {
+
+    private final Logger logger = LogManager.getLogger(this.getClass());
+
+    // Role ids are small sequential keys; anything larger is a data error, not a role
+    static final int MAX_ROLE_ID = 1 << 12;
+
+    private final RolesRepository rolesRepository;
+
+    private volatile Snapshot snapshot;
+
+    public RoleCatalog(RolesRepository rolesRepository) {
+        this.rolesRepository = rolesRepository;
+
+        // Fail startup if the roles cannot be read, later reloads keep the last good snapshot
+        this.snapshot = load();
+        logger.info("Loaded role catalog with {} roles", snapshot.size());
+    }
+
+    /**
+     * The name of the role, or {@code null} if no role has that id.
+     */
+    public String roleName(int roleId) {
+        var namesById = snapshot.namesById();
+        return roleId >= 0 && roleId < namesById.length ? namesById[roleId] : null;
+    }
+
+    /**
+     * The id of the role, or {@code null} if no role has that name.
+     */
+    public Integer roleId(String roleName) {
+        return snapshot.idsByName().get(roleName);
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    @Scheduled(initialDelayString = "${role.catalog.refresh-interval-ms:60000}",
+            fixedDelayString = "${role.catalog.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            logger.error("Role catalog reload failed, keeping current roles", e);
+        }
+    }
+
+    /**
+     * Re-reads the roles table and swaps in the new snapshot. Returns the number of roles loaded.
+     */
+    public synchronized int reload() {
+        var reloaded = load();
+        if (!reloaded.sameAs(snapshot)) {
+            snapshot = reloaded;
+            logger.info("Reloaded role catalog with {} roles", reloaded.size());
+        }
+        return reloaded.size();
+    }
+
+    private Snapshot load() {
+        var roles = rolesRepository.findAll();
+
+        var maxRoleId = -1;
+        for (var role : roles) {
+            var roleId = role.getRoleId();
+            if (roleId == null || roleId < 0 || roleId >= MAX_ROLE_ID) {
+                throw new IllegalStateException("Role id out of range: " + roleId);
+            }
+            if (role.getRoleName() == null) {
+                throw new IllegalStateException("Role " + roleId + " has no name");
+            }
+            maxRoleId = Math.max(maxRoleId, roleId);
+        }
+
+        var namesById = new String[maxRoleId + 1];
+        var idsByName = new HashMap<String, Integer>();
+        for (var role : roles) {
+            namesById[role.getRoleId()] = role.getRoleName();
+            idsByName.put(role.getRoleName(), role.getRoleId());
+        }
+        return new Snapshot(namesById, Map.copyOf(idsByName));
+    }
+
+    private record Snapshot(String[] namesById, Map<String, Integer> idsByName) {
+
+        int size() {
+            return idsByName.size();
+        }
+
+        boolean sameAs(Snapshot other) {
+            return Arrays.equals(namesById, other.namesById) && idsByName.equals(other.idsByName);
+        }
+    }
+}
@@ -1,21 +1,33 @@
 package com.merufureku.aromatica.auth_service.helper;
 
+import com.merufureku.aromatica.auth_service.config.TokenConfig;
 import com.merufureku.aromatica.auth_service.dao.entity.Token;
 import com.merufureku.aromatica.auth_service.dao.entity.Users;
+import com.merufureku.aromatica.auth_service.dao.projection.IssuedTokenFingerprint;
 import com.merufureku.aromatica.auth_service.dao.repository.TokenRepository;
+import com.merufureku.aromatica.auth_service.dto.responses.IntrospectBatchResponse;
 import com.merufureku.aromatica.auth_service.dto.responses.LoginResponse;
 import com.merufureku.aromatica.auth_service.exception.ServiceException;
 import com.merufureku.aromatica.auth_service.utilities.TokenUtility;
+import io.jsonwebtoken.Claims;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Component;
 
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import static com.merufureku.aromatica.auth_service.constants.AuthConstants.*;
 import static com.merufureku.aromatica.auth_service.enums.CustomStatusEnums.INVALID_TOKEN;
 import static com.merufureku.aromatica.auth_service.utilities.DateUtility.isAccessTokenExpired;
+import static com.merufureku.aromatica.auth_service.utilities.TokenUtility.fingerprint;
 
 @Component
 public class TokenHelper {
@@ -24,83 +36,180 @@ public class TokenHelper {
 
     private static final String TOKEN_INVALIDATED = "Token Invalidated!";
 
+    // Below this many tokens verifying on the calling thread is cheaper than forking
+    private static final int PARALLEL_VERIFY_THRESHOLD = 8;
+
     private final TokenUtility tokenUtility;
     private final TokenRepository tokenRepository;
     private final AuthServiceHelper authServiceHelper;
+    private final TokenRevocationList tokenRevocationList;
+    private final TokenConfig tokenConfig;
 
-    public TokenHelper(TokenUtility tokenUtility, TokenRepository tokenRepository, AuthServiceHelper authServiceHelper) {
+    public TokenHelper(TokenUtility tokenUtility, TokenRepository tokenRepository, AuthServiceHelper authServiceHelper,
+                       TokenRevocationList tokenRevocationList, TokenConfig tokenConfig) {
         this.tokenUtility = tokenUtility;
         this.tokenRepository = tokenRepository;
         this.authServiceHelper = authServiceHelper;
+        this.tokenRevocationList = tokenRevocationList;
+        this.tokenConfig = tokenConfig;
     }
 
-    public LoginResponse generateToken(Users user){
-
-        var roleName = authServiceHelper.getUserRole(user);
+    public LoginResponse generateToken(Integer userId, String roleName){
 
-        logger.info("Generating token for userId={}, role={}", user.getId(), roleName);
+        logger.info("Generating token for userId={}, role={}", userId, roleName);
 
         var accessJti = UUID.randomUUID().toString();
         var refreshJti = UUID.randomUUID().toString();
-        var generatedAccessToken = tokenUtility.generateToken(accessJti, user.getId(), ACCESS_TOKEN, roleName);
-        var generatedRefreshToken = tokenUtility.generateToken(refreshJti, user.getId(), REFRESH_TOKEN, roleName);
+        var generatedAccessToken = tokenUtility.generateToken(accessJti, userId, ACCESS_TOKEN, roleName);
+        var generatedRefreshToken = tokenUtility.generateToken(refreshJti, userId, REFRESH_TOKEN, roleName);
 
-        saveToken(user.getId(), ACCESS_TOKEN, accessJti, generatedAccessToken);
-        saveToken(user.getId(), REFRESH_TOKEN, refreshJti, generatedRefreshToken);
+        // Written together so both rows go out in a single JDBC batch
+        tokenRepository.saveAll(List.of(
+                buildToken(userId, ACCESS_TOKEN, accessJti, generatedAccessToken),
+                buildToken(userId, REFRESH_TOKEN, refreshJti, generatedRefreshToken)));
 
-        return new LoginResponse(user.getId(), new LoginResponse
+        return new LoginResponse(userId, new LoginResponse
                 .Token(generatedAccessToken, generatedRefreshToken));
     }
 
-    private void saveToken(Integer userId, String type, String jti, String generatedToken){
+    private Token buildToken(Integer userId, String type, String jti, String generatedToken){
         var timeNow = LocalDateTime.now();
         var expirationDate = type.equals(ACCESS_TOKEN) ?
                 timeNow.plusMinutes(ACCESS_TOKEN_EXPIRATION_MINUTES) :
                 timeNow.plusDays(REFRESH_TOKEN_EXPIRATION_DAYS);
 
-        var token = Token.builder()
+        return Token.builder()
                 .userId(userId)
-                .token(generatedToken)
+                .tokenHash(fingerprint(generatedToken))
                 .type(type)
                 .jti(jti)
                 .createdDt(timeNow)
                 .expirationDt(expirationDate)
                 .build();
-
-        tokenRepository.save(token);
     }
 
     public String generateNewAccessToken(Users user){
-        tokenRepository.deleteByUserIdAndType(user.getId(), ACCESS_TOKEN);
+        var deleted = tokenRepository.deleteByUserIdAndType(user.getId(), ACCESS_TOKEN);
+        tokenRevocationList.revokeUser(user.getId());
+        logger.info("Removed {} access tokens of User ID {}", deleted, user.getId());
 
         var accessJti = UUID.randomUUID().toString();
         var roleName = authServiceHelper.getUserRole(user);
         var token = tokenUtility.generateToken(accessJti, user.getId(), ACCESS_TOKEN, roleName);
 
-        saveToken(user.getId(), ACCESS_TOKEN, accessJti, token);
+        tokenRepository.save(buildToken(user.getId(), ACCESS_TOKEN, accessJti, token));
 
         return token;
     }
 
+    public void validateAccessToken(Claims claims, String validatingToken){
+        var userId = claims.get("userId", Integer.class);
+
+        // A full revocation list may be missing revocations, the table is authoritative then
+        if (!tokenConfig.isStatelessAccessValidation() || !tokenRevocationList.isComplete()){
+            validateToken(userId, claims.getId(), validatingToken, ACCESS_TOKEN);
+            return;
+        }
+
+        // Signature and expiry were already verified when the token was parsed
+        if (tokenRevocationList.isRevoked(userId, claims.getIssuedAt())){
+            logger.info("Revoked token found!");
+            throw new ServiceException(INVALID_TOKEN);
+        }
+    }
+
     public void validateToken(Integer userId, String jti, String validatingToken, String tokenType){
         logger.info("Validating token for: {}", userId);
 
-        var originalToken = tokenRepository.findByUserIdAndJtiAndType(userId, jti, tokenType)
+        var originalToken = tokenRepository.findFingerprint(userId, jti, tokenType)
                 .orElseThrow(() -> new ServiceException(INVALID_TOKEN));
 
-        if (!originalToken.getToken().equals(validatingToken)){
+        if (!MessageDigest.isEqual(originalToken.tokenHash(), fingerprint(validatingToken))){
             logger.info("Invalid token found!");
             throw new ServiceException(INVALID_TOKEN);
         }
-        if (isAccessTokenExpired(originalToken.getExpirationDt(), tokenType)){
+        if (isAccessTokenExpired(originalToken.expirationDt(), tokenType)){
             logger.info("Token expired!");
             throw new ServiceException(INVALID_TOKEN);
         }
     }
 
+    /**
+     * Introspects a batch of access tokens. Signatures are verified in parallel, then every token
+     * that verified is checked against the token table with a single IN query (or against the
+     * revocation list in stateless mode, unless the list is incomplete).
+     *
+     * @return one result per token, in the same order
+     */
+    public List<IntrospectBatchResponse.Result> introspectAccessTokens(List<String> tokens){
+        var verified = verifyAll(tokens);
+        var useTokenTable = !tokenConfig.isStatelessAccessValidation() || !tokenRevocationList.isComplete();
+
+        var fingerprints = new HashMap<String, IssuedTokenFingerprint>();
+        if (useTokenTable){
+            var jtis = new HashSet<String>();
+            for (var claims : verified) {
+                if (claims != null && claims.getId() != null) {
+                    jtis.add(claims.getId());
+                }
+            }
+            if (!jtis.isEmpty()) {
+                for (var fingerprint : tokenRepository.findFingerprintsByJtis(jtis, ACCESS_TOKEN)) {
+                    fingerprints.put(fingerprint.jti(), fingerprint);
+                }
+            }
+        }
+
+        var results = new ArrayList<IntrospectBatchResponse.Result>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            var claims = verified.get(i);
+            var active = claims != null && isActive(claims, tokens.get(i), fingerprints, useTokenTable);
+
+            results.add(active
+                    ? new IntrospectBatchResponse.Result(true, claims.get("userId", Integer.class), claims.get("role", String.class))
+                    : IntrospectBatchResponse.Result.INACTIVE);
+        }
+
+        logger.info("Introspected {} tokens", tokens.size());
+        return results;
+    }
+
+    private List<Claims> verifyAll(List<String> tokens){
+        var indexes = IntStream.range(0, tokens.size());
+        if (tokens.size() >= PARALLEL_VERIFY_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        // The list keeps request order, a null entry marks a token that did not verify
+        return indexes.mapToObj(i -> verifyQuietly(tokens.get(i))).toList();
+    }
+
+    private Claims verifyQuietly(String token){
+        try {
+            return tokenUtility.parseToken(token, ACCESS_TOKEN);
+        } catch (ServiceException e) {
+            return null;
+        }
+    }
+
+    private boolean isActive(Claims claims, String token, Map<String, IssuedTokenFingerprint> fingerprints,
+                             boolean useTokenTable){
+        var userId = claims.get("userId", Integer.class);
+
+        if (!useTokenTable){
+            return !tokenRevocationList.isRevoked(userId, claims.getIssuedAt());
+        }
+
+        var fingerprint = fingerprints.get(claims.getId());
+        return fingerprint != null
+                && fingerprint.userId().equals(userId)
+                && MessageDigest.isEqual(fingerprint.tokenHash(), fingerprint(token))
+                && !isAccessTokenExpired(fingerprint.expirationDt(), ACCESS_TOKEN);
+    }
+
     public void invalidateAllUserToken(Integer userId){
         logger.info("Removing refresh and access token of User ID {}", userId);
-        tokenRepository.deleteByUserId(userId);
-        logger.info(TOKEN_INVALIDATED);
+        var deleted = tokenRepository.deleteByUserId(userId);
+        tokenRevocationList.revokeUser(userId);
+        logger.info("{} Removed {} tokens", TOKEN_INVALIDATED, deleted);
     }
 }
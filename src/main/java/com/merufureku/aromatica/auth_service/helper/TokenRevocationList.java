@@ -0,0 +1,108 @@
+package com.merufureku.aromatica.auth_service.helper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.merufureku.aromatica.auth_service.config.TokenConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.function.LongSupplier;
+
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.ACCESS_TOKEN_EXPIRATION_MINUTES;
+
+/**
+ * In-memory denylist used when access tokens are validated without the token table.
+ * <p>
+ * Revoking a user records a cutoff; every access token of that user issued before the cutoff
+ * is rejected. Entries only need to outlive the access tokens they cover, so they expire after
+ * one access token lifetime.
+ * <p>
+ * {@code token.revocation.max-entries} is a hard cap: live entries are never evicted to make
+ * room. A revocation that does not fit is not recorded; instead the list reports itself
+ * incomplete for one access token lifetime, and callers must check the token table until then.
+ */
+@Component
+public class TokenRevocationList {
+
+    private final Logger logger = LogManager.getLogger(this.getClass());
+
+    private static final long ENTRY_LIFETIME_MILLIS = Duration.ofMinutes(ACCESS_TOKEN_EXPIRATION_MINUTES).toMillis();
+
+    private final Cache<Integer, Long> revokedBefore;
+    private final long maxEntries;
+    private final LongSupplier clockMillis;
+    private final Counter overflows;
+
+    private volatile long incompleteUntilMillis;
+
+    @Autowired
+    public TokenRevocationList(TokenConfig tokenConfig, MeterRegistry meterRegistry) {
+        this(tokenConfig, meterRegistry, System::currentTimeMillis);
+    }
+
+    TokenRevocationList(TokenConfig tokenConfig, MeterRegistry meterRegistry, LongSupplier clockMillis) {
+        this.maxEntries = tokenConfig.getRevocationMaxEntries();
+        this.clockMillis = clockMillis;
+        this.revokedBefore = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ENTRY_LIFETIME_MILLIS))
+                .ticker(() -> clockMillis.getAsLong() * 1_000_000)
+                .build();
+
+        Gauge.builder("token.revocation.entries", revokedBefore, Cache::estimatedSize)
+                .description("Users with a live revocation cutoff")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("token.revocation.overflow")
+                .description("Revocations not recorded because the list was full; validation fell back to the token table")
+                .register(meterRegistry);
+    }
+
+    public void revokeUser(Integer userId) {
+        var nowMillis = clockMillis.getAsLong();
+
+        // Raising an existing cutoff never grows the list
+        if (revokedBefore.getIfPresent(userId) == null && isFull()) {
+            overflows.increment();
+            if (isComplete()) {
+                logger.warn("Token revocation list is full ({} entries), checking access tokens against the token table for {} minutes",
+                        maxEntries, ACCESS_TOKEN_EXPIRATION_MINUTES);
+            }
+            incompleteUntilMillis = nowMillis + ENTRY_LIFETIME_MILLIS;
+            return;
+        }
+
+        // JWT iat has second precision, so tokens issued within the same second stay valid
+        revokedBefore.asMap().merge(userId, nowMillis / 1000, Math::max);
+    }
+
+    public boolean isRevoked(Integer userId, Date issuedAt) {
+        var cutoff = revokedBefore.getIfPresent(userId);
+        if (cutoff == null) {
+            return false;
+        }
+        return issuedAt == null || issuedAt.toInstant().getEpochSecond() < cutoff;
+    }
+
+    /**
+     * False while a revocation from the last access token lifetime could not be recorded. A token
+     * that {@link #isRevoked} accepts must then still be checked against the token table.
+     */
+    public boolean isComplete() {
+        return clockMillis.getAsLong() >= incompleteUntilMillis;
+    }
+
+    private boolean isFull() {
+        if (revokedBefore.estimatedSize() < maxEntries) {
+            return false;
+        }
+        // The estimate still counts expired entries until they are cleaned up
+        revokedBefore.cleanUp();
+        return revokedBefore.estimatedSize() >= maxEntries;
+    }
+}
@@ -0,0 +1,94 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+import io.github.bucket4j.local.SynchronizationStrategy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The limits of one bucket, independent of where the bucket lives. Every limit refills to
+ * its full capacity once per period, and a request needs a token from all of them.
+ */
+public final class BucketSpec {
+
+    private final List<Limit> limits;
+    private final Duration longestPeriod;
+    private final List<Bandwidth> bandwidths;
+    private final BucketConfiguration configuration;
+    private final Supplier<Bucket> bucketFactory;
+
+    public BucketSpec(List<Limit> limits) {
+        if (limits.isEmpty()) {
+            throw new IllegalArgumentException("A bucket needs at least one limit");
+        }
+        this.limits = List.copyOf(limits);
+        this.longestPeriod = this.limits.stream()
+                .map(Limit::period)
+                .max(Duration::compareTo)
+                .orElseThrow();
+        this.bandwidths = this.limits.stream()
+                .map(limit -> Bandwidth.classic(limit.capacity(), Refill.intervally(limit.capacity(), limit.period())))
+                .toList();
+
+        var configurationBuilder = BucketConfiguration.builder();
+        for (var bandwidth : bandwidths) {
+            configurationBuilder.addLimit(bandwidth);
+        }
+        this.configuration = configurationBuilder.build();
+        this.bucketFactory = this::newBucket;
+    }
+
+    public static BucketSpec of(long capacity, Duration period) {
+        return new BucketSpec(List.of(new Limit(capacity, period)));
+    }
+
+    public List<Limit> limits() {
+        return limits;
+    }
+
+    /**
+     * After this long without requests every limit has refilled, so the bucket can be dropped.
+     */
+    public Duration longestPeriod() {
+        return longestPeriod;
+    }
+
+    /**
+     * Prebuilt, so resolving a bucket does not capture a new lambda per request.
+     */
+    public Supplier<Bucket> bucketFactory() {
+        return bucketFactory;
+    }
+
+    /**
+     * The same limits as a bucket4j configuration, for reconfiguring a live bucket.
+     */
+    public BucketConfiguration configuration() {
+        return configuration;
+    }
+
+    private Bucket newBucket() {
+        var builder = Bucket.builder();
+        for (var bandwidth : bandwidths) {
+            builder.addLimit(bandwidth);
+        }
+        // Per-key contention is low, and the synchronized bucket updates its state in place
+        return builder
+                .withSynchronizationStrategy(SynchronizationStrategy.SYNCHRONIZED)
+                .build();
+    }
+
+    public record Limit(long capacity, Duration period) {
+
+        public Limit {
+            if (capacity <= 0 || period.isNegative() || period.isZero()) {
+                throw new IllegalArgumentException("Invalid limit: " + capacity + " per " + period);
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+/**
+ * Packs a client address into the 128-bit subject of a {@link RateLimitKey} without
+ * creating strings. The address is read by index straight out of the header value.
+ * <p>
+ * IPv4 becomes its IPv4-mapped IPv6 form, so {@code 1.2.3.4} and {@code ::ffff:1.2.3.4}
+ * share a bucket. Brackets, ports and zone ids are dropped. A value that is not an address
+ * at all (a spoofed header, {@code unknown}) is hashed under a marker prefix so it still gets
+ * a stable key of its own.
+ */
+public final class ClientAddressParser {
+
+    static final long UNPARSED = 0xFFFF_FFFF_FFFF_FFFFL;
+
+    private static final long IPV4_MAPPED = 0xFFFFL << 32;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ClientAddressParser() {
+    }
+
+    /**
+     * Same precedence as before: the first {@code X-Forwarded-For} entry, then
+     * {@code X-Real-IP}, then the socket address.
+     */
+    public static RateLimitKey fromHeaders(String forwardedFor, String realIp, String remoteAddr,
+                                           int endpoint, RateLimitKey probe) {
+        if (forwardedFor != null && !forwardedFor.isEmpty()) {
+            var comma = forwardedFor.indexOf(',');
+            return parse(forwardedFor, 0, comma < 0 ? forwardedFor.length() : comma, endpoint, probe);
+        }
+        if (realIp != null && !realIp.isEmpty()) {
+            return parse(realIp, 0, realIp.length(), endpoint, probe);
+        }
+        var addr = remoteAddr == null ? "" : remoteAddr;
+        return parse(addr, 0, addr.length(), endpoint, probe);
+    }
+
+    public static RateLimitKey parse(CharSequence s, int start, int end, int endpoint, RateLimitKey probe) {
+        while (start < end && Character.isWhitespace(s.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(s.charAt(end - 1))) {
+            end--;
+        }
+
+        var from = start;
+        var to = end;
+        var colons = 0;
+        var lastColon = -1;
+        for (int i = from; i < to; i++) {
+            var c = s.charAt(i);
+            if (c == ':') {
+                colons++;
+                lastColon = i;
+            } else if (c == '%' || c == ']') {
+                // Zone id or the end of a bracketed address, nothing after it is part of the address
+                to = i;
+                break;
+            }
+        }
+        if (from < to && s.charAt(from) == '[') {
+            from++;
+        }
+
+        if (colons <= 1) {
+            // IPv4, possibly with a port
+            var v4 = parseIpv4(s, from, colons == 1 ? lastColon : to);
+            if (v4 >= 0) {
+                return probe.set(endpoint, RateLimitKey.SCOPE_IP, 0L, IPV4_MAPPED | v4);
+            }
+        } else if (parseIpv6(s, from, to, endpoint, probe)) {
+            return probe;
+        }
+
+        return probe.set(endpoint, RateLimitKey.SCOPE_IP, UNPARSED, hash(s, start, end));
+    }
+
+    static String format(long hi, long lo) {
+        if (hi == 0L && (lo >>> 32) == 0xFFFFL) {
+            return ((lo >>> 24) & 0xFF) + "." + ((lo >>> 16) & 0xFF) + "." + ((lo >>> 8) & 0xFF) + "." + (lo & 0xFF);
+        }
+        if (hi == UNPARSED) {
+            return "unparsed#" + Long.toHexString(lo);
+        }
+        var sb = new StringBuilder(39);
+        for (int group = 0; group < 8; group++) {
+            var word = group < 4 ? hi : lo;
+            var shift = 48 - 16 * (group % 4);
+            if (group > 0) {
+                sb.append(':');
+            }
+            sb.append(Long.toHexString((word >>> shift) & 0xFFFF));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the address as an unsigned 32-bit value, or -1 if it is not a dotted quad.
+     */
+    private static long parseIpv4(CharSequence s, int start, int end) {
+        long value = 0;
+        var octets = 0;
+        var octet = -1;
+        var digits = 0;
+
+        for (int i = start; i < end; i++) {
+            var c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet) * 10 + (c - '0');
+                if (++digits > 3 || octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.') {
+                if (octet < 0 || ++octets > 3) {
+                    return -1;
+                }
+                value = (value << 8) | octet;
+                octet = -1;
+                digits = 0;
+            } else {
+                return -1;
+            }
+        }
+
+        if (octet < 0 || octets != 3) {
+            return -1;
+        }
+        return (value << 8) | octet;
+    }
+
+    private static boolean parseIpv6(CharSequence s, int start, int end, int endpoint, RateLimitKey probe) {
+        long headHi = 0, headLo = 0, tailHi = 0, tailLo = 0;
+        var headGroups = 0;
+        var tailGroups = 0;
+        var compressed = false;
+
+        var i = start;
+        if (end - start >= 2 && s.charAt(i) == ':' && s.charAt(i + 1) == ':') {
+            compressed = true;
+            i += 2;
+        }
+
+        while (i < end) {
+            var groupStart = i;
+            var value = 0;
+            var digits = 0;
+            int hex;
+            while (i < end && (hex = Character.digit(s.charAt(i), 16)) >= 0) {
+                value = (value << 4) | hex;
+                if (++digits > 4) {
+                    break;
+                }
+                i++;
+            }
+
+            long bits;
+            int groups;
+            if (i < end && s.charAt(i) == '.') {
+                // Embedded IPv4 in the last 32 bits
+                var v4 = parseIpv4(s, groupStart, end);
+                if (v4 < 0) {
+                    return false;
+                }
+                bits = v4;
+                groups = 2;
+                i = end;
+            } else {
+                if (digits == 0 || digits > 4) {
+                    return false;
+                }
+                bits = value;
+                groups = 1;
+            }
+
+            var shift = 16 * groups;
+            if (compressed) {
+                tailHi = (tailHi << shift) | (tailLo >>> (64 - shift));
+                tailLo = (tailLo << shift) | bits;
+                tailGroups += groups;
+            } else {
+                headHi = (headHi << shift) | (headLo >>> (64 - shift));
+                headLo = (headLo << shift) | bits;
+                headGroups += groups;
+            }
+            if (headGroups + tailGroups > 8) {
+                return false;
+            }
+
+            if (i == end) {
+                break;
+            }
+            if (s.charAt(i) != ':' || ++i == end) {
+                return false;
+            }
+            if (s.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+            }
+        }
+
+        var groups = headGroups + tailGroups;
+        if (compressed ? groups > 7 : groups != 8) {
+            return false;
+        }
+
+        // Move the groups before "::" to the top, the ones after it are already at the bottom
+        var shift = 16 * (8 - headGroups);
+        long hi;
+        long lo;
+        if (headGroups == 0) {
+            hi = 0;
+            lo = 0;
+        } else if (shift == 0) {
+            hi = headHi;
+            lo = headLo;
+        } else if (shift < 64) {
+            hi = (headHi << shift) | (headLo >>> (64 - shift));
+            lo = headLo << shift;
+        } else {
+            hi = headLo << (shift - 64);
+            lo = 0;
+        }
+
+        probe.set(endpoint, RateLimitKey.SCOPE_IP, hi | tailHi, lo | tailLo);
+        return true;
+    }
+
+    private static long hash(CharSequence s, int start, int end) {
+        var h = FNV_OFFSET;
+        for (int i = start; i < end; i++) {
+            h ^= s.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,23 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Buckets in this node's heap. Fast, but every replica enforces the limit on its own.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitBackend implements RateLimitBackend {
+
+    private final RateLimitBucketStore bucketStore;
+
+    public InMemoryRateLimitBackend(RateLimitBucketStore bucketStore) {
+        this.bucketStore = bucketStore;
+    }
+
+    @Override
+    public boolean tryConsume(RateLimitKey probe, RateLimitPolicy policy) {
+        return bucketStore.resolve(probe, policy.spec()).tryConsume(1);
+    }
+}
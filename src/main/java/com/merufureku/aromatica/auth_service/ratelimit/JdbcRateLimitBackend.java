@@ -0,0 +1,246 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.merufureku.aromatica.auth_service.admission.RequestPriority;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Buckets shared by every replica through the {@code rate_limit_bucket} table, so a limit
+ * holds for the whole cluster and not per node.
+ * <p>
+ * Rows are updated by compare-and-swap on a version column; no row locks are held. To keep
+ * most requests off the database, a node leases a small batch of tokens per key and serves it
+ * from a local near-cache. When the shared bucket is empty, the node caches the denial until
+ * the next refill. Unused leased tokens expire with the lease. This makes the cluster limit
+ * slightly stricter, never looser. The lease is one token for small limits such as
+ * {@code /login}, which keeps them exact, at the cost of a select and an update for every
+ * allowed request; rejected requests are answered from the cached denial.
+ * <p>
+ * The rate-limit filter runs before requests are classified for admission, so the bucket
+ * queries are run as {@link RequestPriority#CRITICAL}: a saturated pool must not switch off
+ * the limits that protect {@code /login} and {@code /register}. If the database still fails,
+ * the request is checked against this node's own bucket instead, so the limit is enforced per
+ * node until the database is back, never dropped.
+ * <p>
+ * The shared {@code bucket_key} is built from the policy's {@link RateLimitPolicy#sharedId()},
+ * not the endpoint ordinal in the key, since ordinals differ between nodes that loaded their
+ * policies in a different order. The ordinal keyed probe is only used for the local leases.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.backend", havingValue = "jdbc")
+public class JdbcRateLimitBackend implements RateLimitBackend {
+
+    private final Logger logger = LogManager.getLogger(this.getClass());
+
+    private static final int MAX_CAS_ATTEMPTS = 5;
+    private static final long LEASE_DIVISOR = 10;
+
+    private static final String SELECT_STATE =
+            "SELECT state, version FROM rate_limit_bucket WHERE bucket_key = ?";
+    private static final String INSERT_STATE =
+            "INSERT INTO rate_limit_bucket (bucket_key, state, version, expires_at) VALUES (?, ?, 0, ?)";
+    private static final String UPDATE_STATE =
+            "UPDATE rate_limit_bucket SET state = ?, version = version + 1, expires_at = ? WHERE bucket_key = ? AND version = ?";
+    private static final String DELETE_EXPIRED =
+            "DELETE FROM rate_limit_bucket WHERE expires_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RateLimitBucketStore fallbackStore;
+    private final long maxLease;
+    private final long leaseTtlMillis;
+    private final LongSupplier clockMillis;
+    private final Cache<RateLimitKey, Lease> leases;
+
+    @Autowired
+    public JdbcRateLimitBackend(JdbcTemplate jdbcTemplate,
+                                RateLimitBucketStore fallbackStore,
+                                @Value("${rate-limit.backend.jdbc.max-lease:20}") long maxLease,
+                                @Value("${rate-limit.backend.jdbc.lease-ttl-ms:1000}") long leaseTtlMillis,
+                                @Value("${rate-limit.store.max-entries:100000}") long maxEntries) {
+        this(jdbcTemplate, fallbackStore, maxLease, leaseTtlMillis, maxEntries, System::currentTimeMillis);
+    }
+
+    JdbcRateLimitBackend(JdbcTemplate jdbcTemplate, RateLimitBucketStore fallbackStore, long maxLease,
+                         long leaseTtlMillis, long maxEntries, LongSupplier clockMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fallbackStore = fallbackStore;
+        this.maxLease = maxLease;
+        this.leaseTtlMillis = leaseTtlMillis;
+        this.clockMillis = clockMillis;
+        this.leases = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new LeaseExpiry())
+                .build();
+    }
+
+    @Override
+    public boolean tryConsume(RateLimitKey probe, RateLimitPolicy policy) {
+        var lease = leases.getIfPresent(probe);
+        if (lease != null) {
+            var result = lease.tryTake(clockMillis.getAsLong());
+            if (result != LeaseResult.EXHAUSTED) {
+                return result == LeaseResult.GRANTED;
+            }
+        }
+
+        var key = probe.copy();
+        try {
+            return RequestPriority.callAs(RequestPriority.CRITICAL, () -> acquire(key, policy));
+        } catch (DataAccessException e) {
+            logger.warn("Shared rate limit unavailable, using this node's bucket: key={}, error={}", key, e.getMessage());
+            return fallbackStore.resolve(key, policy.spec()).tryConsume(1);
+        }
+    }
+
+    private boolean acquire(RateLimitKey key, RateLimitPolicy policy) {
+        var spec = policy.spec();
+        var bucketKey = encodeKey(policy.sharedId(), key);
+        var wanted = leaseSize(spec);
+
+        for (int attempt = 0; attempt < MAX_CAS_ATTEMPTS; attempt++) {
+            var now = clockMillis.getAsLong();
+            var rows = jdbcTemplate.query(SELECT_STATE,
+                    (rs, rowNum) -> new StoredState(rs.getBytes("state"), rs.getLong("version")), bucketKey);
+            var stored = rows.isEmpty() ? null : rows.get(0);
+
+            var state = stored == null ? SharedBucketState.full(spec, now) : SharedBucketState.decode(stored.state(), spec, now);
+            state.refill(spec, now);
+
+            var taken = state.take(wanted);
+            if (taken == 0) {
+                // Nothing changed, so nothing to write; remember the denial until the next refill
+                leases.put(key, Lease.denied(now, Math.max(1, state.millisUntilRefill(spec, now))));
+                return false;
+            }
+
+            var expiresAt = Timestamp.from(Instant.ofEpochMilli(now).plus(spec.longestPeriod()));
+            if (stored == null ? insert(bucketKey, state, expiresAt) : update(bucketKey, state, expiresAt, stored.version())) {
+                // One token serves this request, the rest of the batch is leased locally
+                leases.put(key, Lease.granted(taken - 1, now, leaseTtlMillis));
+                return true;
+            }
+        }
+
+        logger.warn("Rate limit bucket too contended, rejecting request: key={}", key);
+        return false;
+    }
+
+    private boolean insert(byte[] bucketKey, SharedBucketState state, Timestamp expiresAt) {
+        try {
+            return jdbcTemplate.update(INSERT_STATE, bucketKey, state.encode(), expiresAt) == 1;
+        } catch (DuplicateKeyException e) {
+            // Another node created the bucket first, retry against its row
+            return false;
+        }
+    }
+
+    private boolean update(byte[] bucketKey, SharedBucketState state, Timestamp expiresAt, long version) {
+        return jdbcTemplate.update(UPDATE_STATE, state.encode(), expiresAt, bucketKey, version) == 1;
+    }
+
+    @Scheduled(initialDelayString = "${rate-limit.backend.jdbc.purge-interval-ms:300000}",
+            fixedDelayString = "${rate-limit.backend.jdbc.purge-interval-ms:300000}")
+    public void purgeExpired() {
+        var deleted = jdbcTemplate.update(DELETE_EXPIRED, Timestamp.from(Instant.ofEpochMilli(clockMillis.getAsLong())));
+        if (deleted > 0) {
+            logger.info("Purged {} idle rate limit buckets", deleted);
+        }
+    }
+
+    /**
+     * Leasing more than a tenth of the smallest capacity would let one node starve the others.
+     */
+    long leaseSize(BucketSpec spec) {
+        var smallest = Long.MAX_VALUE;
+        for (var limit : spec.limits()) {
+            smallest = Math.min(smallest, limit.capacity());
+        }
+        return Math.max(1, Math.min(maxLease, smallest / LEASE_DIVISOR));
+    }
+
+    static byte[] encodeKey(long sharedId, RateLimitKey key) {
+        return ByteBuffer.allocate(Long.BYTES + 1 + 2 * Long.BYTES)
+                .putLong(sharedId)
+                .put(key.scope())
+                .putLong(key.hi())
+                .putLong(key.lo())
+                .array();
+    }
+
+    private record StoredState(byte[] state, long version) {}
+
+    private enum LeaseResult { GRANTED, DENIED, EXHAUSTED }
+
+    private static final class Lease {
+
+        private final AtomicLong remaining;
+        private final long validUntilMillis;
+        private final long ttlMillis;
+        private final boolean denied;
+
+        private Lease(long remaining, long nowMillis, long ttlMillis, boolean denied) {
+            this.remaining = new AtomicLong(remaining);
+            this.validUntilMillis = nowMillis + ttlMillis;
+            this.ttlMillis = ttlMillis;
+            this.denied = denied;
+        }
+
+        static Lease granted(long tokens, long nowMillis, long ttlMillis) {
+            return new Lease(tokens, nowMillis, ttlMillis, false);
+        }
+
+        static Lease denied(long nowMillis, long ttlMillis) {
+            return new Lease(0, nowMillis, ttlMillis, true);
+        }
+
+        LeaseResult tryTake(long nowMillis) {
+            if (nowMillis >= validUntilMillis) {
+                return LeaseResult.EXHAUSTED;
+            }
+            if (denied) {
+                return LeaseResult.DENIED;
+            }
+            return remaining.getAndDecrement() > 0 ? LeaseResult.GRANTED : LeaseResult.EXHAUSTED;
+        }
+
+        long ttlNanos() {
+            return TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        }
+    }
+
+    private static class LeaseExpiry implements Expiry<RateLimitKey, Lease> {
+
+        @Override
+        public long expireAfterCreate(RateLimitKey key, Lease lease, long currentTime) {
+            return lease.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(RateLimitKey key, Lease lease, long currentTime, long currentDuration) {
+            return lease.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(RateLimitKey key, Lease lease, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
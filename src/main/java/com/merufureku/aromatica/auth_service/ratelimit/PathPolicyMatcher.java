@@ -0,0 +1,104 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Immutable character trie over the policy paths, built once per reload. A lookup walks the
+ * request path a single time and allocates nothing. An exact path wins over a prefix
+ * ({@code /**}) policy, and a longer prefix wins over a shorter one. A prefix only matches at a
+ * segment boundary, so {@code /auth/**} covers {@code /auth/me} but not {@code /authors}.
+ */
+final class PathPolicyMatcher {
+
+    private final Node root;
+
+    private PathPolicyMatcher(Node root) {
+        this.root = root;
+    }
+
+    static PathPolicyMatcher compile(List<RateLimitPolicy> policies) {
+        var root = new NodeBuilder();
+        for (var policy : policies) {
+            var node = root;
+            var path = policy.definition().prefix();
+            for (int i = 0; i < path.length(); i++) {
+                node = node.children.computeIfAbsent(path.charAt(i), c -> new NodeBuilder());
+            }
+            if (policy.definition().isPrefix()) {
+                node.prefixPolicy = policy;
+            } else {
+                node.exactPolicy = policy;
+            }
+        }
+        return new PathPolicyMatcher(root.build());
+    }
+
+    RateLimitPolicy match(String path) {
+        var node = root;
+        RateLimitPolicy prefixMatch = null;
+
+        for (int i = 0; i < path.length(); i++) {
+            var c = path.charAt(i);
+            if (c == '/' && node.prefixPolicy != null) {
+                prefixMatch = node.prefixPolicy;
+            }
+            node = node.child(c);
+            if (node == null) {
+                return prefixMatch;
+            }
+        }
+
+        if (node.exactPolicy != null) {
+            return node.exactPolicy;
+        }
+        return node.prefixPolicy != null ? node.prefixPolicy : prefixMatch;
+    }
+
+    private static final class Node {
+
+        private final char[] keys;
+        private final Node[] children;
+        private final RateLimitPolicy exactPolicy;
+        private final RateLimitPolicy prefixPolicy;
+
+        private Node(char[] keys, Node[] children, RateLimitPolicy exactPolicy, RateLimitPolicy prefixPolicy) {
+            this.keys = keys;
+            this.children = children;
+            this.exactPolicy = exactPolicy;
+            this.prefixPolicy = prefixPolicy;
+        }
+
+        Node child(char c) {
+            // Keys are sorted; path tries are narrow, so a linear scan beats a binary search
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    return children[i];
+                }
+                if (keys[i] > c) {
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class NodeBuilder {
+
+        private final TreeMap<Character, NodeBuilder> children = new TreeMap<>();
+        private RateLimitPolicy exactPolicy;
+        private RateLimitPolicy prefixPolicy;
+
+        Node build() {
+            var keys = new char[children.size()];
+            var nodes = new Node[children.size()];
+            var i = 0;
+            for (var entry : children.entrySet()) {
+                keys[i] = entry.getKey();
+                nodes[i] = entry.getValue().build();
+                i++;
+            }
+            return new Node(keys, nodes, exactPolicy, prefixPolicy);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+/**
+ * Where the rate-limit buckets live. Select one with {@code rate-limit.backend}: {@code memory}
+ * (per node) or {@code jdbc} (shared by all replicas through the database).
+ */
+public interface RateLimitBackend {
+
+    /**
+     * Takes one token from the bucket for the key, creating the bucket from the policy's spec if
+     * needed. The key may be a reused probe; implementations copy it before keeping it.
+     */
+    boolean tryConsume(RateLimitKey probe, RateLimitPolicy policy);
+}
@@ -0,0 +1,109 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the rate-limit buckets, bounded in size.
+ * <p>
+ * A bucket left idle for its refill window has refilled completely, so dropping it and
+ * creating a fresh one later gives the same answer. Each entry therefore expires after its own
+ * refill window without access, and a hard entry cap bounds memory when keys are spoofed.
+ * Lookups of existing buckets do not lock.
+ * <p>
+ * When a policy is reloaded, the next request for an existing bucket applies the new limits
+ * and keeps the tokens already used.
+ */
+@Component
+public class RateLimitBucketStore {
+
+    static final String CACHE_NAME = "rateLimitBuckets";
+
+    private final Cache<RateLimitKey, BucketEntry> buckets;
+
+    @Autowired
+    public RateLimitBucketStore(MeterRegistry meterRegistry,
+                                @Value("${rate-limit.store.max-entries:100000}") long maxEntries) {
+        this(meterRegistry, maxEntries, Ticker.systemTicker());
+    }
+
+    RateLimitBucketStore(MeterRegistry meterRegistry, long maxEntries, Ticker ticker) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new IdleExpiry())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, CACHE_NAME);
+    }
+
+    /**
+     * Looks the bucket up with the caller's reusable probe. Only a miss copies the probe and
+     * builds a bucket, so the hit path allocates nothing.
+     */
+    public Bucket resolve(RateLimitKey probe, BucketSpec spec) {
+        var entry = buckets.getIfPresent(probe);
+        if (entry != null) {
+            if (entry.spec() == spec) {
+                return entry.bucket();
+            }
+            var reconfigured = buckets.asMap().computeIfPresent(probe, (key, current) -> reconfigure(current, spec));
+            if (reconfigured != null) {
+                return reconfigured.bucket();
+            }
+        }
+        return buckets.get(probe.copy(), k -> new BucketEntry(spec.bucketFactory().get(), spec)).bucket();
+    }
+
+    long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private static BucketEntry reconfigure(BucketEntry current, BucketSpec spec) {
+        if (current.spec() == spec) {
+            return current;
+        }
+        if (current.spec().limits().size() != spec.limits().size()) {
+            // The limits cannot be matched one to one, start over with a full bucket
+            return new BucketEntry(spec.bucketFactory().get(), spec);
+        }
+        current.bucket().replaceConfiguration(spec.configuration(), TokensInheritanceStrategy.ADDITIVE);
+        return new BucketEntry(current.bucket(), spec);
+    }
+
+    private record BucketEntry(Bucket bucket, BucketSpec spec) {
+
+        long idleNanos() {
+            return spec.longestPeriod().toNanos();
+        }
+    }
+
+    private static class IdleExpiry implements Expiry<RateLimitKey, BucketEntry> {
+
+        @Override
+        public long expireAfterCreate(RateLimitKey key, BucketEntry entry, long currentTime) {
+            return entry.idleNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(RateLimitKey key, BucketEntry entry, long currentTime, long currentDuration) {
+            return entry.idleNanos();
+        }
+
+        @Override
+        public long expireAfterRead(RateLimitKey key, BucketEntry entry, long currentTime, long currentDuration) {
+            return entry.idleNanos();
+        }
+    }
+}
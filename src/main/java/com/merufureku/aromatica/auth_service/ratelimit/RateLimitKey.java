@@ -0,0 +1,87 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+/**
+ * Compact bucket key: the endpoint ordinal, the scope and a 128-bit subject.
+ * <p>
+ * For IP scope the subject is the client address with IPv4 stored IPv4-mapped
+ * ({@code ::ffff:a.b.c.d}). For user scope it is the user id, and for global scope it is zero.
+ * A filter thread reuses one mutable probe per request for lookups. Only a bucket miss stores a
+ * {@link #copy() copy}, so a request that hits an existing bucket allocates nothing.
+ */
+public final class RateLimitKey {
+
+    public static final byte SCOPE_IP = 0;
+    public static final byte SCOPE_USER = 1;
+    public static final byte SCOPE_GLOBAL = 2;
+
+    private int endpoint;
+    private byte scope;
+    private long hi;
+    private long lo;
+
+    public RateLimitKey() {
+    }
+
+    private RateLimitKey(int endpoint, byte scope, long hi, long lo) {
+        this.endpoint = endpoint;
+        this.scope = scope;
+        this.hi = hi;
+        this.lo = lo;
+    }
+
+    public RateLimitKey set(int endpoint, byte scope, long hi, long lo) {
+        this.endpoint = endpoint;
+        this.scope = scope;
+        this.hi = hi;
+        this.lo = lo;
+        return this;
+    }
+
+    public RateLimitKey copy() {
+        return new RateLimitKey(endpoint, scope, hi, lo);
+    }
+
+    public int endpoint() {
+        return endpoint;
+    }
+
+    public byte scope() {
+        return scope;
+    }
+
+    public long hi() {
+        return hi;
+    }
+
+    public long lo() {
+        return lo;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof RateLimitKey other
+                && endpoint == other.endpoint
+                && scope == other.scope
+                && hi == other.hi
+                && lo == other.lo;
+    }
+
+    @Override
+    public int hashCode() {
+        var h = endpoint * 31 + scope;
+        h = h * 31 + Long.hashCode(hi);
+        return h * 31 + Long.hashCode(lo);
+    }
+
+    @Override
+    public String toString() {
+        return switch (scope) {
+            case SCOPE_IP -> "ip:" + ClientAddressParser.format(hi, lo) + ":" + endpoint;
+            case SCOPE_USER -> "user:" + lo + ":" + endpoint;
+            default -> "global:" + endpoint;
+        };
+    }
+}
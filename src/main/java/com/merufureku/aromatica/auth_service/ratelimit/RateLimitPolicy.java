@@ -0,0 +1,39 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A compiled policy. The ordinal is stable for a path across reloads, so buckets keyed by it
+ * survive a reload. It is local to this node though, it depends on the order policies were
+ * first loaded in. Buckets shared between replicas are keyed by {@link #sharedId()} instead,
+ * a hash of the path that every node computes the same.
+ */
+public record RateLimitPolicy(int ordinal, long sharedId, RateLimitPolicyDefinition definition, BucketSpec spec) {
+
+    public RateLimitPolicy(int ordinal, RateLimitPolicyDefinition definition, BucketSpec spec) {
+        this(ordinal, sharedId(definition.path()), definition, spec);
+    }
+
+    public String path() {
+        return definition.path();
+    }
+
+    public RateLimitScope scope() {
+        return definition.scope();
+    }
+
+    /**
+     * The first 8 bytes of the SHA-256 of the path.
+     */
+    static long sharedId(String path) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(path.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
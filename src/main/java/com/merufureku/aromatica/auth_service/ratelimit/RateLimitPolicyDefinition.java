@@ -0,0 +1,48 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A rate-limit policy as configured, e.g.
+ * <pre>
+ * rate-limit.policies[0].path=/login
+ * rate-limit.policies[0].scope=IP
+ * rate-limit.policies[0].limits[0].capacity=5
+ * rate-limit.policies[0].limits[0].period=1m
+ * </pre>
+ * A path ending in {@code /**} covers everything below it; exact paths take precedence.
+ * Several limits can be combined, e.g. a short burst limit and a long sustained one.
+ */
+public record RateLimitPolicyDefinition(String path, RateLimitScope scope, List<LimitDefinition> limits) {
+
+    public RateLimitPolicyDefinition {
+        if (path == null || !path.startsWith("/")) {
+            throw new IllegalArgumentException("Rate limit path must start with '/': " + path);
+        }
+        if (limits == null || limits.isEmpty()) {
+            throw new IllegalArgumentException("Rate limit policy for " + path + " has no limits");
+        }
+        scope = scope == null ? RateLimitScope.IP : scope;
+        limits = List.copyOf(limits);
+    }
+
+    public boolean isPrefix() {
+        return path.endsWith("/**");
+    }
+
+    /**
+     * The path without the trailing {@code /**} of a prefix policy.
+     */
+    public String prefix() {
+        return isPrefix() ? path.substring(0, path.length() - 3) : path;
+    }
+
+    BucketSpec toSpec() {
+        return new BucketSpec(limits.stream()
+                .map(limit -> new BucketSpec.Limit(limit.capacity(), limit.period()))
+                .toList());
+    }
+
+    public record LimitDefinition(long capacity, Duration period) {}
+}
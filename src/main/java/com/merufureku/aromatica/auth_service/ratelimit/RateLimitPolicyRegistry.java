@@ -0,0 +1,184 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The active rate-limit policies and the matcher compiled from them.
+ * <p>
+ * Policies are read from {@code rate-limit.policies} in the application properties. If
+ * {@code rate-limit.policy-location} points at a properties file, that file is used instead
+ * (e.g. a mounted ConfigMap). With {@code rate-limit.policy-table.enabled}, rows of the
+ * {@code rate_limit_policy} table override policies with the same path.
+ * <p>
+ * Sources are re-read on a schedule. When the policies changed, a new matcher is compiled and
+ * swapped in atomically. Unchanged policies keep their {@link BucketSpec}, and every path keeps
+ * its ordinal, so existing buckets are neither dropped nor reset.
+ */
+@Component
+public class RateLimitPolicyRegistry {
+
+    private final Logger logger = LogManager.getLogger(this.getClass());
+
+    static final String POLICIES_PREFIX = "rate-limit.policies";
+
+    private static final String SELECT_POLICIES =
+            "SELECT path, scope, capacity, period_seconds FROM rate_limit_policy ORDER BY path, id";
+
+    private final Environment environment;
+    private final JdbcTemplate jdbcTemplate;
+    private final String location;
+    private final boolean jdbcEnabled;
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private volatile Map<String, RateLimitPolicy> policies = Map.of();
+    private volatile PathPolicyMatcher matcher = PathPolicyMatcher.compile(List.of());
+
+    @Autowired
+    public RateLimitPolicyRegistry(Environment environment,
+                                   JdbcTemplate jdbcTemplate,
+                                   @Value("${rate-limit.policy-location:}") String location,
+                                   @Value("${rate-limit.policy-table.enabled:false}") boolean jdbcEnabled) {
+        this.environment = environment;
+        this.jdbcTemplate = jdbcTemplate;
+        this.location = location;
+        this.jdbcEnabled = jdbcEnabled;
+
+        // Fail startup on a broken configuration, later reloads keep the last good policies
+        apply(loadDefinitions());
+    }
+
+    /**
+     * The policy for a path within the context, or {@code null} if the path is not limited.
+     */
+    public RateLimitPolicy match(String path) {
+        return matcher.match(path);
+    }
+
+    public List<RateLimitPolicy> policies() {
+        return List.copyOf(policies.values());
+    }
+
+    @Scheduled(initialDelayString = "${rate-limit.policy-refresh-interval-ms:30000}",
+            fixedDelayString = "${rate-limit.policy-refresh-interval-ms:30000}")
+    public void refresh() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            logger.error("Rate limit policy reload failed, keeping current policies", e);
+        }
+    }
+
+    /**
+     * Re-reads every source and returns whether the policies changed.
+     */
+    public synchronized boolean reload() {
+        return apply(loadDefinitions());
+    }
+
+    private synchronized boolean apply(List<RateLimitPolicyDefinition> definitions) {
+        var current = policies;
+        var next = new LinkedHashMap<String, RateLimitPolicy>();
+
+        for (var definition : definitions) {
+            var existing = current.get(definition.path());
+            if (existing != null && existing.definition().equals(definition)) {
+                next.put(definition.path(), existing);
+            } else {
+                var ordinal = ordinals.get(definition.path());
+                if (ordinal == null) {
+                    ordinal = ordinals.size();
+                    ordinals.put(definition.path(), ordinal);
+                }
+                next.put(definition.path(), new RateLimitPolicy(ordinal, definition, definition.toSpec()));
+            }
+        }
+
+        if (next.equals(current)) {
+            return false;
+        }
+
+        matcher = PathPolicyMatcher.compile(List.copyOf(next.values()));
+        policies = Map.copyOf(next);
+
+        if (next.isEmpty()) {
+            logger.warn("No rate limit policies configured, rate limiting is off");
+        }
+        next.values().forEach(policy -> logger.info("Rate limit policy {} scope={} limits={}",
+                policy.path(), policy.scope(), policy.definition().limits()));
+        return true;
+    }
+
+    private List<RateLimitPolicyDefinition> loadDefinitions() {
+        var definitions = new LinkedHashMap<String, RateLimitPolicyDefinition>();
+        for (var definition : bindDefinitions()) {
+            definitions.put(definition.path(), definition);
+        }
+        if (jdbcEnabled) {
+            for (var definition : queryDefinitions()) {
+                definitions.put(definition.path(), definition);
+            }
+        }
+        return List.copyOf(definitions.values());
+    }
+
+    private List<RateLimitPolicyDefinition> bindDefinitions() {
+        var binder = location.isBlank() ? Binder.get(environment) : fileBinder();
+        return binder.bind(POLICIES_PREFIX, Bindable.listOf(RateLimitPolicyDefinition.class))
+                .orElse(List.of());
+    }
+
+    private Binder fileBinder() {
+        try {
+            var resource = new DefaultResourceLoader().getResource(location);
+            var properties = PropertiesLoaderUtils.loadProperties(resource);
+            var source = new PropertiesPropertySource("rate-limit-policies", properties);
+            return new Binder(ConfigurationPropertySources.from(source), null,
+                    ApplicationConversionService.getSharedInstance());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read rate limit policies from " + location, e);
+        }
+    }
+
+    private List<RateLimitPolicyDefinition> queryDefinitions() {
+        var scopes = new HashMap<String, RateLimitScope>();
+        var limits = new LinkedHashMap<String, List<RateLimitPolicyDefinition.LimitDefinition>>();
+
+        RowCallbackHandler collect = rs -> {
+            var path = rs.getString("path");
+            scopes.putIfAbsent(path, RateLimitScope.valueOf(rs.getString("scope").trim().toUpperCase()));
+            limits.computeIfAbsent(path, p -> new ArrayList<>()).add(new RateLimitPolicyDefinition.LimitDefinition(
+                    rs.getLong("capacity"), Duration.ofSeconds(rs.getLong("period_seconds"))));
+        };
+        jdbcTemplate.query(SELECT_POLICIES, collect);
+
+        return limits.entrySet().stream()
+                .map(entry -> new RateLimitPolicyDefinition(entry.getKey(),
+                        Objects.requireNonNull(scopes.get(entry.getKey())), entry.getValue()))
+                .toList();
+    }
+}
@@ -0,0 +1,10 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+/**
+ * Rate limiting scope determines what is being limited
+ */
+public enum RateLimitScope {
+    IP,      // Limit per IP address (for unauthenticated endpoints)
+    USER,    // Limit per user ID (for authenticated endpoints)
+    GLOBAL   // Limit total requests to endpoint (all users combined)
+}
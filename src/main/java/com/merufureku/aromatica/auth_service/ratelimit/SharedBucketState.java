@@ -0,0 +1,106 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Serializable state of a shared bucket: the tokens left and the start of the current window
+ * for every limit of a {@link BucketSpec}. Refill matches the in-memory buckets: a limit is
+ * topped up to full capacity once its period has passed.
+ */
+final class SharedBucketState {
+
+    private final long[] tokens;
+    private final long[] windowStart;
+
+    private SharedBucketState(long[] tokens, long[] windowStart) {
+        this.tokens = tokens;
+        this.windowStart = windowStart;
+    }
+
+    static SharedBucketState full(BucketSpec spec, long nowMillis) {
+        var limits = spec.limits();
+        var tokens = new long[limits.size()];
+        var windowStart = new long[limits.size()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = limits.get(i).capacity();
+            windowStart[i] = nowMillis;
+        }
+        return new SharedBucketState(tokens, windowStart);
+    }
+
+    /**
+     * Reads stored state. If the spec has since changed its number of limits the old state
+     * cannot be mapped and a full bucket is returned instead.
+     */
+    static SharedBucketState decode(byte[] data, BucketSpec spec, long nowMillis) {
+        var count = spec.limits().size();
+        if (data == null || data.length != count * 2 * Long.BYTES) {
+            return full(spec, nowMillis);
+        }
+
+        var buffer = ByteBuffer.wrap(data);
+        var tokens = new long[count];
+        var windowStart = new long[count];
+        for (int i = 0; i < count; i++) {
+            // A lowered capacity applies immediately
+            tokens[i] = Math.min(buffer.getLong(), spec.limits().get(i).capacity());
+            windowStart[i] = buffer.getLong();
+        }
+        return new SharedBucketState(tokens, windowStart);
+    }
+
+    byte[] encode() {
+        var buffer = ByteBuffer.allocate(tokens.length * 2 * Long.BYTES);
+        for (int i = 0; i < tokens.length; i++) {
+            buffer.putLong(tokens[i]).putLong(windowStart[i]);
+        }
+        return buffer.array();
+    }
+
+    void refill(BucketSpec spec, long nowMillis) {
+        for (int i = 0; i < tokens.length; i++) {
+            var limit = spec.limits().get(i);
+            var periodMillis = limit.period().toMillis();
+            var elapsedPeriods = (nowMillis - windowStart[i]) / periodMillis;
+            if (elapsedPeriods > 0) {
+                tokens[i] = limit.capacity();
+                windowStart[i] += elapsedPeriods * periodMillis;
+            }
+        }
+    }
+
+    long available() {
+        var available = Long.MAX_VALUE;
+        for (var t : tokens) {
+            available = Math.min(available, t);
+        }
+        return available;
+    }
+
+    /**
+     * Takes up to {@code wanted} tokens from every limit and returns how many were taken.
+     */
+    long take(long wanted) {
+        var taken = Math.min(wanted, available());
+        if (taken > 0) {
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] -= taken;
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Time until every empty limit has refilled, i.e. until a request can succeed again.
+     */
+    long millisUntilRefill(BucketSpec spec, long nowMillis) {
+        var wait = 0L;
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i] <= 0) {
+                var refillAt = windowStart[i] + spec.limits().get(i).period().toMillis();
+                wait = Math.max(wait, refillAt - nowMillis);
+            }
+        }
+        return wait;
+    }
+}
@@ -0,0 +1,99 @@
+package com.merufureku.aromatica.auth_service.scheduler;
+
+import com.merufureku.aromatica.auth_service.dao.repository.TokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deletes expired rows from the token table. Each batch is its own short transaction and
+ * batches are separated by a pause, so a large backlog is worked off without long locks
+ * or a burst of WAL.
+ * <p>
+ * Every replica runs the reaper. Batches are picked through the {@code expiration_dt} index
+ * (see db/migration/token_expiration_index.sql) and skip rows another replica has locked, so
+ * concurrent runs split the backlog rather than wait on each other.
+ */
+@Component
+@ConditionalOnProperty(name = "token.reaper.enabled", havingValue = "true", matchIfMissing = true)
+public class ExpiredTokenReaper {
+
+    private final Logger logger = LogManager.getLogger(this.getClass());
+
+    private final TokenRepository tokenRepository;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final int maxRowsPerRun;
+
+    private final Counter rowsReaped;
+    private final Timer runTimer;
+
+    public ExpiredTokenReaper(TokenRepository tokenRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${token.reaper.batch-size:500}") int batchSize,
+                              @Value("${token.reaper.pause-ms:200}") long pauseMillis,
+                              @Value("${token.reaper.max-rows-per-run:50000}") int maxRowsPerRun) {
+        this.tokenRepository = tokenRepository;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.maxRowsPerRun = maxRowsPerRun;
+
+        this.rowsReaped = Counter.builder("token.reaper.rows")
+                .description("Expired token rows deleted by the reaper")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("token.reaper.duration")
+                .description("Time spent per reaper run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${token.reaper.initial-delay-ms:60000}",
+            fixedDelayString = "${token.reaper.interval-ms:300000}")
+    public void reap() {
+        var sample = Timer.start();
+        try {
+            reapExpiredTokens();
+        } finally {
+            sample.stop(runTimer);
+        }
+    }
+
+    int reapExpiredTokens() {
+        var cutoff = LocalDateTime.now();
+        var total = 0;
+
+        while (total < maxRowsPerRun) {
+            var limit = Math.min(batchSize, maxRowsPerRun - total);
+            var deleted = tokenRepository.deleteExpiredBatch(cutoff, limit);
+
+            total += deleted;
+            rowsReaped.increment(deleted);
+
+            if (deleted < limit || !pause()) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            logger.info("Reaped {} expired tokens", total);
+        }
+        return total;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
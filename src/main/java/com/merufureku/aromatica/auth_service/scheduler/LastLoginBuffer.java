@@ -0,0 +1,148 @@
+package com.merufureku.aromatica.auth_service.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for last-login timestamps.
+ * <p>
+ * Logins only record the timestamp in memory; repeated logins of the same user between flushes
+ * coalesce into the latest one. The buffer is written on a schedule as one batched UPDATE in a
+ * single transaction, and drained on shutdown. The UPDATE never moves a timestamp backwards, so
+ * replicas flushing in any order agree. A failed flush puts its entries back for the next run.
+ * A crash loses at most one flush interval of timestamps.
+ */
+@Component
+public class LastLoginBuffer {
+
+    private final Logger logger = LogManager.getLogger(this.getClass());
+
+    private static final String UPDATE_LAST_LOGIN =
+            "UPDATE users SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final Map<Integer, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    private final Counter flushed;
+    private final Timer flushTimer;
+
+    public LastLoginBuffer(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${last-login.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+
+        Gauge.builder("last.login.buffer.size", pending, Map::size)
+                .description("Users whose last-login timestamp is waiting to be written")
+                .register(meterRegistry);
+        this.flushed = Counter.builder("last.login.flushed")
+                .description("Last-login timestamps written to the users table")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("last.login.flush.duration")
+                .description("Time spent per last-login flush")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Buffers the login. Inside a transaction this happens after it commits, so a login that
+     * rolled back leaves no timestamp.
+     */
+    public void record(Integer userId, LocalDateTime loginAt) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            buffer(userId, loginAt);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                buffer(userId, loginAt);
+            }
+        });
+    }
+
+    @Scheduled(initialDelayString = "${last-login.flush-interval-ms:5000}",
+            fixedDelayString = "${last-login.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (DataAccessException e) {
+            logger.error("Last-login flush failed, retrying on the next run", e);
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        var written = flush();
+        logger.info("Drained {} last-login timestamps on shutdown", written);
+    }
+
+    /**
+     * Writes everything buffered so far and returns the number of users written.
+     */
+    synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        // Removing each entry as it is taken keeps logins recorded meanwhile for the next flush
+        var batch = new ArrayList<Object[]>(pending.size());
+        for (var userId : pending.keySet()) {
+            var loginAt = pending.remove(userId);
+            if (loginAt != null) {
+                var timestamp = Timestamp.valueOf(loginAt);
+                batch.add(new Object[]{timestamp, userId, timestamp});
+            }
+        }
+
+        var sample = Timer.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < batch.size(); from += batchSize) {
+                    jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, batch.subList(from, Math.min(from + batchSize, batch.size())));
+                }
+            });
+        } catch (RuntimeException e) {
+            batch.forEach(row -> buffer((Integer) row[1], ((Timestamp) row[0]).toLocalDateTime()));
+            throw e;
+        } finally {
+            sample.stop(flushTimer);
+        }
+
+        flushed.increment(batch.size());
+        logger.debug("Flushed {} last-login timestamps", batch.size());
+        return batch.size();
+    }
+
+    private void buffer(Integer userId, LocalDateTime loginAt) {
+        pending.merge(userId, loginAt, LastLoginBuffer::latest);
+    }
+
+    private static LocalDateTime latest(LocalDateTime current, LocalDateTime next) {
+        return next.isAfter(current) ? next : current;
+    }
+}
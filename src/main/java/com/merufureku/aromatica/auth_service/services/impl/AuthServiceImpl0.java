@@ -47,4 +47,9 @@ public class AuthServiceImpl0 implements IAuthService {
     public BaseResponse<NewAccessTokenResponse> refreshAccessToken(String refreshToken, BaseParam baseParam) {
         return null;
     }
+
+    @Override
+    public BaseResponse<IntrospectBatchResponse> introspectBatch(IntrospectBatchParam introspectBatchParam, BaseParam baseParam) {
+        return null;
+    }
 }
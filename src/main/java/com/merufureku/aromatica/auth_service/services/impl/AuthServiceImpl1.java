@@ -1,5 +1,6 @@
 package com.merufureku.aromatica.auth_service.services.impl;
 
+import com.merufureku.aromatica.auth_service.cache.ProfileCache;
 import com.merufureku.aromatica.auth_service.dao.repository.UsersRepository;
 import com.merufureku.aromatica.auth_service.dto.params.*;
 import com.merufureku.aromatica.auth_service.dto.responses.*;
@@ -14,12 +15,17 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import static com.merufureku.aromatica.auth_service.constants.AuthConstants.REFRESH_TOKEN;
 import static com.merufureku.aromatica.auth_service.enums.CustomStatusEnums.*;
 
+/**
+ * Password hashing (BCrypt) deliberately runs outside any transaction so a login or password
+ * change does not hold a pooled connection for the length of a hash. Only the short DB-only
+ * sections are transactional.
+ */
 @Service
-@Transactional(rollbackFor = Exception.class)
 public class AuthServiceImpl1 implements IAuthService {
 
     private final Logger logger = LogManager.getLogger(this.getClass());
@@ -29,13 +35,17 @@ public class AuthServiceImpl1 implements IAuthService {
     private final UsersRepository usersRepository;
     private final PasswordEncoder passwordEncoder;
     private final TokenUtility tokenUtility;
+    private final TransactionTemplate transactionTemplate;
+    private final ProfileCache profileCache;
 
-    public AuthServiceImpl1(AuthServiceHelper authServiceHelper, TokenHelper tokenHelper, UsersRepository usersRepository, PasswordEncoder passwordEncoder, TokenUtility tokenUtility) {
+    public AuthServiceImpl1(AuthServiceHelper authServiceHelper, TokenHelper tokenHelper, UsersRepository usersRepository, PasswordEncoder passwordEncoder, TokenUtility tokenUtility, TransactionTemplate transactionTemplate, ProfileCache profileCache) {
         this.authServiceHelper = authServiceHelper;
         this.tokenHelper = tokenHelper;
         this.usersRepository = usersRepository;
         this.passwordEncoder = passwordEncoder;
         this.tokenUtility = tokenUtility;
+        this.transactionTemplate = transactionTemplate;
+        this.profileCache = profileCache;
     }
 
     @Override
@@ -67,19 +77,32 @@ public class AuthServiceImpl1 implements IAuthService {
 
         logger.info("Authenticating user with username: {}", params.username());
 
-        var user = usersRepository.findByUsername(params.username())
+        // One joined read for the id, hash and role; the rest of the login only writes
+        var credentials = usersRepository.findLoginCredentials(params.username())
                 .orElseThrow(() -> new ServiceException(NO_USER_FOUND));
 
-        if (!passwordEncoder.matches(params.password(), user.getPassword())){
+        if (!passwordEncoder.matches(params.password(), credentials.password())){
             logger.info("Invalid password for {}", params.username());
             throw new ServiceException(NO_USER_FOUND);
         }
 
-        tokenHelper.invalidateAllUserToken(user.getId());
+        if (credentials.roleName() == null){
+            throw new ServiceException(USER_HAS_NO_ROLES);
+        }
+
+        // Hashing stays outside the transaction, the new hash is saved by updateLastLoginDate
+        var upgradedPasswordHash = authServiceHelper.upgradePasswordHash(
+                credentials.userId(), credentials.password(), params.password());
+
+        var generatedToken = transactionTemplate.execute(status -> {
+            tokenHelper.invalidateAllUserToken(credentials.userId());
+
+            var tokens = tokenHelper.generateToken(credentials.userId(), credentials.roleName());
 
-        var generatedToken = tokenHelper.generateToken(user);
+            authServiceHelper.updateLastLoginDate(credentials.userId(), upgradedPasswordHash);
 
-        authServiceHelper.updateLastLoginDate(user);
+            return tokens;
+        });
 
         logger.info("Authentication success for {}", params.username());
 
@@ -88,6 +111,7 @@ public class AuthServiceImpl1 implements IAuthService {
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public boolean logout(Integer id, BaseParam baseParam) {
 
         logger.info("Logging out user with ID: {}", id);
@@ -104,16 +128,18 @@ public class AuthServiceImpl1 implements IAuthService {
 
         logger.info("Fetching details for user with ID: {}", id);
 
-        var user = usersRepository.findById(id)
-                .orElseThrow(() -> new ServiceException(NO_USER_FOUND));
+        // No transaction here, a cache hit must not take a connection; the query has its own
+        var myDetails = profileCache.get(id, userId -> usersRepository.findMyDetails(userId)
+                .orElseThrow(() -> new ServiceException(NO_USER_FOUND)));
 
         logger.info("Fetched details for user with ID: {} success", id);
 
         return new BaseResponse<>(HttpStatus.OK.value(),
-                "Get User Details Success", new MyDetailsResponse(user));
+                "Get User Details Success", myDetails);
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public BaseResponse<UpdateUserDetailsResponse> updateProfile(Integer id, UpdateUserDetailsParam updateUserDetailsParam, BaseParam baseParam) {
 
         logger.info("Updating details for user with ID: {}", id);
@@ -122,12 +148,14 @@ public class AuthServiceImpl1 implements IAuthService {
                 .orElseThrow(() -> new ServiceException(NO_USER_FOUND));
 
         var updatedUser = authServiceHelper.updateUser(user, updateUserDetailsParam);
+        profileCache.invalidate(id);
 
         return new BaseResponse<>(HttpStatus.OK.value(),
                 "Update Profile Success", new UpdateUserDetailsResponse(updatedUser));
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public boolean deleteAccount(Integer id, BaseParam baseParam) {
 
         logger.info("Deleting account for user with ID: {}", id);
@@ -135,7 +163,9 @@ public class AuthServiceImpl1 implements IAuthService {
         var user = usersRepository.findById(id)
                 .orElseThrow(() -> new ServiceException(NO_USER_FOUND));
 
+        tokenHelper.invalidateAllUserToken(id);
         usersRepository.delete(user);
+        profileCache.invalidate(id);
 
         logger.info("Account deleted successfully for user with ID: {}", id);
 
@@ -159,6 +189,7 @@ public class AuthServiceImpl1 implements IAuthService {
         user.setPassword(passwordEncoder.encode(changePasswordParam.newPassword()));
 
         usersRepository.save(user);
+        profileCache.invalidate(id);
 
         logger.info("Password changed successfully for user with ID: {}", id);
 
@@ -166,6 +197,7 @@ public class AuthServiceImpl1 implements IAuthService {
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public BaseResponse<NewAccessTokenResponse> refreshAccessToken(String refreshToken, BaseParam baseParam) {
 
         logger.info("Refreshing access token");
@@ -193,4 +225,16 @@ public class AuthServiceImpl1 implements IAuthService {
                 "Refresh Access Token Success", new NewAccessTokenResponse(user.getId(), newAccessToken));
 
     }
+
+    @Override
+    public BaseResponse<IntrospectBatchResponse> introspectBatch(IntrospectBatchParam introspectBatchParam, BaseParam baseParam) {
+
+        logger.info("Introspecting {} tokens", introspectBatchParam.tokens().size());
+
+        // Not transactional: signatures are verified before the single lookup query borrows a connection
+        var results = tokenHelper.introspectAccessTokens(introspectBatchParam.tokens());
+
+        return new BaseResponse<>(HttpStatus.OK.value(),
+                "Introspect Tokens Success", new IntrospectBatchResponse(results));
+    }
 }
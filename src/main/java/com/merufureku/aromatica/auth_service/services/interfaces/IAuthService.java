@@ -20,4 +20,6 @@ public interface IAuthService {
     boolean changePassword(Integer id, ChangePasswordParam changePasswordParam, BaseParam baseParam);
 
     BaseResponse<NewAccessTokenResponse> refreshAccessToken(String refreshToken, BaseParam baseParam);
+
+    BaseResponse<IntrospectBatchResponse> introspectBatch(IntrospectBatchParam introspectBatchParam, BaseParam baseParam);
 }
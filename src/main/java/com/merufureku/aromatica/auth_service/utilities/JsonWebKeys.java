@@ -0,0 +1,126 @@
+package com.merufureku.aromatica.auth_service.utilities;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Signature;
+import java.security.interfaces.ECKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads P-256 keys for ES256 signing and describes public keys as JWKs (RFC 7517) with an
+ * RFC 7638 thumbprint as their key id.
+ */
+public final class JsonWebKeys {
+
+    public static final String ES256 = "ES256";
+
+    private static final BigInteger P256_ORDER =
+            new BigInteger("FFFFFFFF00000000FFFFFFFFFFFFFFFFBCE6FAADA7179E84F3B9CAC2FC632551", 16);
+    private static final int P256_COORDINATE_LENGTH = 32;
+
+    private JsonWebKeys() {
+    }
+
+    /**
+     * Reads a PKCS#8 private key, either PEM or the bare Base64 body.
+     */
+    public static ECPrivateKey parsePrivateKey(String encoded) {
+        try {
+            var key = KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(decode(encoded)));
+            return requireP256((ECPrivateKey) key);
+        } catch (GeneralSecurityException | ClassCastException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid EC private key", e);
+        }
+    }
+
+    /**
+     * Reads an X.509 SubjectPublicKeyInfo public key, either PEM or the bare Base64 body.
+     */
+    public static ECPublicKey parsePublicKey(String encoded) {
+        try {
+            var key = KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(decode(encoded)));
+            return requireP256((ECPublicKey) key);
+        } catch (GeneralSecurityException | ClassCastException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid EC public key", e);
+        }
+    }
+
+    /**
+     * Fails if the two keys are not halves of the same pair, so a misconfigured pair is caught at
+     * startup instead of by every downstream verifier.
+     */
+    public static void requireKeyPair(ECPrivateKey privateKey, ECPublicKey publicKey) {
+        try {
+            var probe = "key-pair-check".getBytes(StandardCharsets.US_ASCII);
+
+            var signer = Signature.getInstance("SHA256withECDSA");
+            signer.initSign(privateKey);
+            signer.update(probe);
+            var signature = signer.sign();
+
+            var verifier = Signature.getInstance("SHA256withECDSA");
+            verifier.initVerify(publicKey);
+            verifier.update(probe);
+            if (!verifier.verify(signature)) {
+                throw new IllegalArgumentException("EC private and public key do not belong together");
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid EC key pair", e);
+        }
+    }
+
+    public static String thumbprint(ECPublicKey publicKey) {
+        // Required members in lexicographic order, no whitespace (RFC 7638 section 3)
+        var canonical = "{\"crv\":\"P-256\",\"kty\":\"EC\",\"x\":\"" + coordinate(publicKey.getW().getAffineX())
+                + "\",\"y\":\"" + coordinate(publicKey.getW().getAffineY()) + "\"}";
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static Map<String, String> toJwk(String kid, ECPublicKey publicKey) {
+        var jwk = new LinkedHashMap<String, String>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", ES256);
+        jwk.put("x", coordinate(publicKey.getW().getAffineX()));
+        jwk.put("y", coordinate(publicKey.getW().getAffineY()));
+        return jwk;
+    }
+
+    private static String coordinate(BigInteger value) {
+        // Fixed length, big-endian, without the sign byte BigInteger may add
+        var bytes = value.toByteArray();
+        var fixed = new byte[P256_COORDINATE_LENGTH];
+        var length = Math.min(bytes.length, P256_COORDINATE_LENGTH);
+        System.arraycopy(bytes, bytes.length - length, fixed, P256_COORDINATE_LENGTH - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    private static <K extends ECKey> K requireP256(K key) {
+        if (!P256_ORDER.equals(key.getParams().getOrder())) {
+            throw new IllegalArgumentException("ES256 needs a P-256 key");
+        }
+        return key;
+    }
+
+    private static byte[] decode(String encoded) {
+        var body = encoded.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+}
@@ -0,0 +1,205 @@
+package com.merufureku.aromatica.auth_service.utilities;
+
+import com.merufureku.aromatica.auth_service.config.KeyConfig;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.Keys;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.ACCESS_TOKEN;
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.REFRESH_TOKEN;
+
+/**
+ * Holds the decoded signing keys and the prebuilt {@link JwtParser} for every token type.
+ * <p>
+ * Keys are decoded once at startup. Each token carries the {@code kid} of the key that signed it,
+ * so several keys can be accepted at the same time. To rotate, restart the nodes with the new
+ * secret and the old one in {@code previous-keys}; drop it from there once the tokens it signed
+ * have expired.
+ * <p>
+ * Access tokens can be signed with an ES256 key pair instead of the shared secret. Their public
+ * keys are published through {@link #publicKeys()} so other services can verify access tokens
+ * without the secret. The HMAC keys stay accepted, so tokens issued before the switch remain
+ * valid until they expire.
+ */
+@Component
+public class JwtKeyRing {
+
+    private final Logger logger = LogManager.getLogger(this.getClass());
+
+    private static final int KEY_ID_LENGTH = 8;
+    private static final String HS256 = "HS256";
+
+    private final Map<String, KeySet> keySets;
+    private final Map<String, JwtParser> parsers;
+
+    public JwtKeyRing(KeyConfig keyConfig) {
+        this.keySets = Map.of(
+                REFRESH_TOKEN, KeySet.of(keyConfig.getJwtRefreshSecretKey(), keyConfig.getJwtRefreshPreviousKeys()),
+                ACCESS_TOKEN, accessKeySet(keyConfig)
+        );
+        this.parsers = Map.of(
+                ACCESS_TOKEN, buildParser(keySets.get(ACCESS_TOKEN)),
+                REFRESH_TOKEN, buildParser(keySets.get(REFRESH_TOKEN))
+        );
+
+        keySets.forEach((type, keySet) -> logger.info("Loaded {} key ring, active kid={}, accepted kids={}",
+                type, keySet.active().kid(), keySet.verificationKeys().keySet()));
+    }
+
+    public SigningKey signingKey(String type) {
+        return keySet(type).active();
+    }
+
+    /**
+     * The asymmetric verification keys for access tokens by kid, empty unless ES256 is configured.
+     */
+    public Map<String, ECPublicKey> publicKeys() {
+        return keySet(ACCESS_TOKEN).publicKeys();
+    }
+
+    public JwtParser parser(String type) {
+        var parser = parsers.get(type);
+        if (parser == null) {
+            throw new IllegalArgumentException("Invalid type: " + type);
+        }
+        return parser;
+    }
+
+    private KeySet keySet(String type) {
+        var keySet = keySets.get(type);
+        if (keySet == null) {
+            throw new IllegalArgumentException("Invalid type: " + type);
+        }
+        return keySet;
+    }
+
+    private static KeySet accessKeySet(KeyConfig keyConfig) {
+        var hmac = KeySet.of(keyConfig.getJwtAccessSecretKey(), keyConfig.getJwtAccessPreviousKeys());
+        var algorithm = keyConfig.getJwtAccessSigningAlgorithm();
+
+        if (algorithm == null || algorithm.isBlank() || algorithm.equalsIgnoreCase(HS256)) {
+            return hmac;
+        }
+        if (!algorithm.equalsIgnoreCase(JsonWebKeys.ES256)) {
+            throw new IllegalArgumentException("Unsupported access token algorithm: " + algorithm);
+        }
+        if (isBlank(keyConfig.getJwtAccessPrivateKey()) || isBlank(keyConfig.getJwtAccessPublicKey())) {
+            throw new IllegalStateException("ES256 access tokens need jwt.access.signing.private-key and public-key");
+        }
+
+        var privateKey = JsonWebKeys.parsePrivateKey(keyConfig.getJwtAccessPrivateKey());
+        var publicKey = JsonWebKeys.parsePublicKey(keyConfig.getJwtAccessPublicKey());
+        JsonWebKeys.requireKeyPair(privateKey, publicKey);
+
+        var publicKeys = new ArrayList<ECPublicKey>();
+        publicKeys.add(publicKey);
+        if (keyConfig.getJwtAccessPreviousPublicKeys() != null) {
+            for (var previous : keyConfig.getJwtAccessPreviousPublicKeys()) {
+                if (!previous.isBlank()) {
+                    publicKeys.add(JsonWebKeys.parsePublicKey(previous));
+                }
+            }
+        }
+        return hmac.withAsymmetric(new SigningKey(JsonWebKeys.thumbprint(publicKey), privateKey), publicKeys);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static JwtParser buildParser(KeySet keySet) {
+        return Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return keySet.verificationKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    static String keyId(byte[] keyBytes) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(keyBytes);
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(Arrays.copyOf(digest, KEY_ID_LENGTH));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record SigningKey(String kid, Key key) {
+
+        static SigningKey of(String base64Secret) {
+            var keyBytes = Base64.getDecoder().decode(base64Secret.trim().getBytes(StandardCharsets.US_ASCII));
+            return new SigningKey(keyId(keyBytes), Keys.hmacShaKeyFor(keyBytes));
+        }
+    }
+
+    private record KeySet(SigningKey active, Map<String, Key> verificationKeys, Map<String, ECPublicKey> publicKeys) {
+
+        static KeySet of(String activeSecret, String[] previousSecrets) {
+            var active = SigningKey.of(activeSecret);
+            var verificationKeys = new LinkedHashMap<String, Key>();
+            verificationKeys.put(active.kid(), active.key());
+
+            if (previousSecrets != null) {
+                for (var previousSecret : previousSecrets) {
+                    if (!previousSecret.isBlank()) {
+                        var previous = SigningKey.of(previousSecret);
+                        verificationKeys.putIfAbsent(previous.kid(), previous.key());
+                    }
+                }
+            }
+            return new KeySet(active, Map.copyOf(verificationKeys), Map.of());
+        }
+
+        /**
+         * Signs with the private key instead, keeping the HMAC keys for verification only.
+         */
+        KeySet withAsymmetric(SigningKey signingKey, List<ECPublicKey> keys) {
+            var verificationKeys = new LinkedHashMap<String, Key>(this.verificationKeys);
+            var publicKeys = new LinkedHashMap<String, ECPublicKey>();
+            for (var key : keys) {
+                var kid = JsonWebKeys.thumbprint(key);
+                verificationKeys.putIfAbsent(kid, key);
+                publicKeys.putIfAbsent(kid, key);
+            }
+            return new KeySet(signingKey, Map.copyOf(verificationKeys), Map.copyOf(publicKeys));
+        }
+
+        Key verificationKey(String kid) {
+            // Tokens issued before key ids were introduced carry no kid, they were all HMAC signed
+            if (kid == null) {
+                if (active.key() instanceof PrivateKey) {
+                    throw new InvalidKeyException("Token has no key id");
+                }
+                return active.key();
+            }
+            var key = verificationKeys.get(kid);
+            if (key == null) {
+                throw new InvalidKeyException("Unknown key id: " + kid);
+            }
+            return key;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.merufureku.aromatica.auth_service.utilities;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Finds the highest hashing cost that stays inside a per-hash latency budget on the current
+ * hardware. Costs are tried upwards from the floor, and the floor is kept even if it is
+ * already over budget.
+ */
+public class PasswordCostCalibrator {
+
+    private final Logger logger = LogManager.getLogger(this.getClass());
+
+    private static final String SAMPLE_PASSWORD = "calibration-Password-123";
+
+    private final Duration budget;
+    private final int samples;
+
+    public PasswordCostCalibrator(Duration budget, int samples) {
+        this.budget = budget;
+        this.samples = samples;
+    }
+
+    public int calibrate(String algorithm, IntFunction<PasswordEncoder> encoderForCost, int floor, int ceiling) {
+        var chosen = floor;
+
+        for (int cost = floor; cost <= ceiling; cost++) {
+            var elapsed = measure(encoderForCost.apply(cost));
+            logger.debug("Calibrating {}: cost {} took {} ms", algorithm, cost, elapsed.toMillis());
+
+            if (elapsed.compareTo(budget) > 0) {
+                if (cost == floor) {
+                    logger.warn("{} cost floor {} takes {} ms, over the {} ms budget",
+                            algorithm, floor, elapsed.toMillis(), budget.toMillis());
+                }
+                break;
+            }
+            chosen = cost;
+        }
+
+        logger.info("Calibrated {} cost to {} for a {} ms budget", algorithm, chosen, budget.toMillis());
+        return chosen;
+    }
+
+    /**
+     * Median of several encodes after one warm-up, so JIT compilation and a single slow
+     * run do not skew the result.
+     */
+    Duration measure(PasswordEncoder encoder) {
+        encoder.encode(SAMPLE_PASSWORD);
+
+        var timings = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            var start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            timings[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(timings);
+        return Duration.ofNanos(timings[samples / 2]);
+    }
+}
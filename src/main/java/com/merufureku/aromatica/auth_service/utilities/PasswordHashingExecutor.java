@@ -0,0 +1,125 @@
+package com.merufureku.aromatica.auth_service.utilities;
+
+import com.merufureku.aromatica.auth_service.exception.ServiceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.merufureku.aromatica.auth_service.enums.CustomStatusEnums.PASSWORD_HASHING_BUSY;
+
+/**
+ * Runs password hashing on a fixed pool sized to the CPU instead of on request threads.
+ * <p>
+ * The queue in front of the pool is bounded. Once it is full, new work is rejected straight
+ * away with {@code PASSWORD_HASHING_BUSY} (503) so a login flood cannot pile up behind the
+ * hashes already running.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final Logger logger = LogManager.getLogger(this.getClass());
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer waitTimer;
+    private final Timer hashTimer;
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(MeterRegistry meterRegistry,
+                                   @Value("${password.hashing.pool-size:0}") int poolSize,
+                                   @Value("${password.hashing.queue-capacity:64}") int queueCapacity) {
+        var threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("password.hashing.pool.size", executor, ThreadPoolExecutor::getMaximumPoolSize)
+                .description("Threads available for password hashing")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes currently running")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Password hashes waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.remaining", executor, e -> e.getQueue().remainingCapacity())
+                .description("Free slots in the password hashing queue")
+                .register(meterRegistry);
+
+        this.waitTimer = Timer.builder("password.hashing.wait")
+                .description("Time a password hash spent queued before it started")
+                .register(meterRegistry);
+        this.hashTimer = Timer.builder("password.hashing.duration")
+                .description("Time spent computing a password hash")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Password hashes rejected because the queue was full")
+                .register(meterRegistry);
+
+        logger.info("Password hashing pool started with {} threads and a queue of {}", threads, queueCapacity);
+    }
+
+    /**
+     * Runs the hash on the pool and waits for its result. Exceptions thrown by the task are
+     * rethrown unchanged on the calling thread.
+     */
+    public <T> T execute(Supplier<T> task) {
+        var queued = Timer.start();
+
+        try {
+            var future = executor.submit(() -> {
+                queued.stop(waitTimer);
+                return hashTimer.record(task);
+            });
+            return future.get();
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Password hashing queue is full, rejecting request");
+            throw new ServiceException(PASSWORD_HASHING_BUSY);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hash", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            var thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,18 +1,17 @@
 package com.merufureku.aromatica.auth_service.utilities;
 
-import com.merufureku.aromatica.auth_service.config.KeyConfig;
 import com.merufureku.aromatica.auth_service.exception.ServiceException;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Component;
 
-import java.util.Base64;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 
-import static com.merufureku.aromatica.auth_service.constants.AuthConstants.ACCESS_TOKEN;
 import static com.merufureku.aromatica.auth_service.constants.AuthConstants.REFRESH_TOKEN;
 import static com.merufureku.aromatica.auth_service.enums.CustomStatusEnums.INVALID_TOKEN;
 
@@ -21,47 +20,37 @@ public class TokenUtility {
 
     private final Logger logger = LogManager.getLogger(this.getClass());
 
-    private final KeyConfig keyConfig;
+    private final JwtKeyRing jwtKeyRing;
 
-    public TokenUtility(KeyConfig keyConfig) {
-        this.keyConfig = keyConfig;
+    public TokenUtility(JwtKeyRing jwtKeyRing) {
+        this.jwtKeyRing = jwtKeyRing;
     }
 
     public String generateToken(String jti, Integer userId, String type, String role){
 
         logger.info("Generating token for {}", userId);
 
-        var secretKeyString = type.equals(REFRESH_TOKEN) ?
-                keyConfig.getJwtRefreshSecretKey() :
-                keyConfig.getJwtAccessSecretKey();
-
-        var keyBytes = Base64.getDecoder().decode(secretKeyString);
-        var secretKey = Keys.hmacShaKeyFor(keyBytes);
+        var signingKey = jwtKeyRing.signingKey(type);
 
         var expirationMillis = type.equals(REFRESH_TOKEN)
                 ? 7L * 24 * 60 * 60 * 1000  // 7 days
                 : 15L * 60 * 1000;          // 15 minutes
 
         return Jwts.builder()
+                .header().keyId(signingKey.kid()).and()
                 .id(jti)
                 .claim("userId", userId)
                 .claim("role", role)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expirationMillis))
-                .signWith(secretKey)
+                .signWith(signingKey.key())
                 .compact();
     }
 
     public Claims parseToken(String token, String type) {
 
         try{
-            var secretKeyString = getSecretKey(type);
-            var secretKey = Keys.hmacShaKeyFor(Base64.getDecoder()
-                    .decode(secretKeyString));
-
-            return Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
+            return jwtKeyRing.parser(type)
                     .parseSignedClaims(token)
                     .getPayload();
 
@@ -70,11 +59,12 @@ public class TokenUtility {
         }
     }
 
-    private String getSecretKey(String type) {
-        return switch(type){
-            case REFRESH_TOKEN  -> keyConfig.getJwtRefreshSecretKey();
-            case ACCESS_TOKEN -> keyConfig.getJwtAccessSecretKey();
-            default -> throw new ServiceException(INVALID_TOKEN);
-        };
+    public static byte[] fingerprint(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,6 @@
+-- Token and users ids are now drawn from pooled sequences (allocationSize = 50) so Hibernate can
+-- batch inserts. The existing id sequences are kept, only their increment has to match.
+-- Ids handed out by nodes still on IDENTITY during the rollout never overlap a pooled range.
+
+ALTER SEQUENCE token_id_seq INCREMENT BY 50;
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
@@ -0,0 +1,12 @@
+-- Shared rate-limit buckets, used when rate-limit.backend=jdbc.
+-- state holds the tokens and window start of every limit, version guards compare-and-swap updates.
+-- Rows idle past expires_at are purged by the service.
+
+CREATE TABLE IF NOT EXISTS rate_limit_bucket (
+    bucket_key bytea PRIMARY KEY,
+    state bytea NOT NULL,
+    version bigint NOT NULL,
+    expires_at timestamp NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS rate_limit_bucket_expires_at_idx ON rate_limit_bucket (expires_at);
@@ -0,0 +1,14 @@
+-- Runtime rate-limit policies, used when rate-limit.policy-table.enabled=true.
+-- One row per limit; several rows for the same path combine into one policy (e.g. burst plus
+-- sustained). Rows override the configured policy with the same path and are picked up on the
+-- next reload.
+
+CREATE TABLE IF NOT EXISTS rate_limit_policy (
+    id serial PRIMARY KEY,
+    path varchar(255) NOT NULL,
+    scope varchar(16) NOT NULL,
+    capacity bigint NOT NULL CHECK (capacity > 0),
+    period_seconds bigint NOT NULL CHECK (period_seconds > 0)
+);
+
+CREATE INDEX IF NOT EXISTS rate_limit_policy_path_idx ON rate_limit_policy (path);
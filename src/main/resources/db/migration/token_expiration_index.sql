@@ -0,0 +1,5 @@
+-- Lets the expired token reaper find each batch through the index instead of scanning the token
+-- table. CONCURRENTLY keeps token writes (logins) going while it builds, so run it outside a
+-- transaction.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS token_expiration_dt_idx ON token (expiration_dt);
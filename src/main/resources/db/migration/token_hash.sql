@@ -0,0 +1,19 @@
+-- Replaces the stored JWT in token.token with its SHA-256 fingerprint in token.token_hash.
+-- Requires PostgreSQL 11+ for sha256().
+--
+-- Rollout:
+--   1. Run steps 1 and 2 before deploying, so every existing row has a fingerprint.
+--   2. Deploy. Rows written by old nodes during the rollout only have token set.
+--   3. Run step 2 again to fingerprint those rows, then step 3 once no old node is left.
+
+-- Step 1
+ALTER TABLE token ADD COLUMN IF NOT EXISTS token_hash bytea;
+
+-- Step 2
+UPDATE token
+SET token_hash = sha256(convert_to(token, 'UTF8'))
+WHERE token_hash IS NULL
+  AND token IS NOT NULL;
+
+-- Step 3
+ALTER TABLE token DROP COLUMN IF EXISTS token;
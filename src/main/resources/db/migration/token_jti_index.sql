@@ -0,0 +1,5 @@
+-- Lets the batch introspection endpoint resolve many access tokens with one IN (jti) lookup
+-- instead of a sequential scan. CONCURRENTLY keeps token writes (logins) going while it builds,
+-- so run it outside a transaction.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS token_jti_type_idx ON token (jti, type);
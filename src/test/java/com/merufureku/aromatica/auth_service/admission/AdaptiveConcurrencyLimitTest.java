@@ -0,0 +1,99 @@
+package com.merufureku.aromatica.auth_service.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void testTryAcquire_whenLimitReached_thenReject() {
+        var limiter = new AdaptiveConcurrencyLimit(2, 1, 10, 0.2, 1.5);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.inflight());
+
+        limiter.onSample(FAST);
+
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void testOnSample_whenLatencyStableUnderLoad_thenGrowLimit() {
+        var limiter = new AdaptiveConcurrencyLimit(4, 1, 50, 0.2, 1.5);
+
+        runRounds(limiter, FAST, 50);
+
+        assertTrue(limiter.limit() > 4);
+        assertEquals(0, limiter.inflight());
+    }
+
+    @Test
+    void testOnSample_whenLatencyRises_thenShrinkLimit() {
+        var limiter = new AdaptiveConcurrencyLimit(4, 2, 50, 0.2, 1.5);
+        runRounds(limiter, FAST, 50);
+        var grown = limiter.limit();
+
+        runRounds(limiter, SLOW, 10);
+
+        assertTrue(limiter.limit() < grown);
+    }
+
+    @Test
+    void testOnSample_whenIdle_thenKeepLimit() {
+        var limiter = new AdaptiveConcurrencyLimit(8, 1, 50, 0.2, 1.5);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.onSample(FAST);
+        }
+
+        assertEquals(8, limiter.limit());
+    }
+
+    @Test
+    void testOnDropped_whenCalled_thenBackOffNotBelowMin() {
+        var limiter = new AdaptiveConcurrencyLimit(10, 3, 50, 0.2, 1.5);
+
+        assertTrue(limiter.tryAcquire());
+        limiter.onDropped();
+
+        assertEquals(9, limiter.limit());
+        assertEquals(0, limiter.inflight());
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.onDropped();
+        }
+
+        assertEquals(3, limiter.limit());
+    }
+
+    @Test
+    void testConstructor_whenRangeInvalid_thenThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(4, 0, 10, 0.2, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(4, 5, 2, 0.2, 1.5));
+    }
+
+    /**
+     * Fills the limiter up to its current limit and completes every request with the given latency.
+     */
+    private static void runRounds(AdaptiveConcurrencyLimit limiter, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            var admitted = 0;
+            while (limiter.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limiter.onSample(rttNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.merufureku.aromatica.auth_service.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+import static com.merufureku.aromatica.auth_service.admission.RequestPriority.BULK;
+import static com.merufureku.aromatica.auth_service.admission.RequestPriority.CRITICAL;
+import static com.merufureku.aromatica.auth_service.admission.RequestPriority.STANDARD;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriorityAdmissionDataSourceTest {
+
+    @Mock
+    private DataSource pool;
+
+    @Mock
+    private Connection connection;
+
+    private final PriorityAdmissionQueue queue = new PriorityAdmissionQueue("database", 2, Map.of(
+            CRITICAL, new PriorityAdmissionQueue.Tier(1, 0, Duration.ZERO),
+            STANDARD, new PriorityAdmissionQueue.Tier(0, 0, Duration.ZERO),
+            BULK, new PriorityAdmissionQueue.Tier(0, 0, Duration.ZERO)), new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        RequestPriority.clearCurrent();
+    }
+
+    @Test
+    void testGetConnection_whenClosed_thenPermitReleasedOnce() throws Exception {
+        when(pool.getConnection()).thenReturn(connection);
+        var dataSource = new PriorityAdmissionDataSource(pool, () -> queue);
+
+        var borrowed = dataSource.getConnection();
+        assertEquals(1, queue.inUse());
+
+        borrowed.close();
+        borrowed.close();
+
+        assertEquals(0, queue.inUse());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void testGetConnection_whenTierOutOfPermits_thenRejectWithoutTouchingPool() throws Exception {
+        when(pool.getConnection()).thenReturn(connection);
+        var dataSource = new PriorityAdmissionDataSource(pool, () -> queue);
+        RequestPriority.setCurrent(BULK);
+        dataSource.getConnection();
+
+        assertThrows(AdmissionRejectedException.class, dataSource::getConnection);
+
+        RequestPriority.setCurrent(CRITICAL);
+        assertNotNull(dataSource.getConnection());
+        verify(pool, times(2)).getConnection();
+    }
+
+    @Test
+    void testGetConnection_whenPoolFails_thenPermitReturned() throws Exception {
+        when(pool.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        var dataSource = new PriorityAdmissionDataSource(pool, () -> queue);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(0, queue.inUse());
+    }
+}
@@ -0,0 +1,124 @@
+package com.merufureku.aromatica.auth_service.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.merufureku.aromatica.auth_service.admission.RequestPriority.BULK;
+import static com.merufureku.aromatica.auth_service.admission.RequestPriority.CRITICAL;
+import static com.merufureku.aromatica.auth_service.admission.RequestPriority.STANDARD;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityAdmissionQueueTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testAcquire_whenLowerTiersFull_thenReservedPermitsLeftForHigherTiers() throws Exception {
+        var queue = queue(4, 1, 1, Duration.ZERO);
+
+        assertTrue(queue.acquire(BULK));
+        assertTrue(queue.acquire(BULK));
+        assertFalse(queue.acquire(BULK));
+
+        assertTrue(queue.acquire(STANDARD));
+        assertFalse(queue.acquire(STANDARD));
+
+        assertTrue(queue.acquire(CRITICAL));
+        assertFalse(queue.acquire(CRITICAL));
+
+        assertEquals(4, queue.inUse());
+        assertEquals(1.0, meterRegistry.get("admission.rejected").tag("tier", "bulk").counter().count());
+        assertEquals(1.0, meterRegistry.get("admission.rejected").tag("tier", "critical").counter().count());
+    }
+
+    @Test
+    void testRelease_whenSeveralTiersWaiting_thenHighestTierAdmittedFirst() throws Exception {
+        var queue = queue(1, 0, 0, Duration.ofSeconds(10));
+        assertTrue(queue.acquire(STANDARD));
+
+        var bulkAdmitted = new CountDownLatch(1);
+        var criticalAdmitted = new CountDownLatch(1);
+        var bulk = startWaiter(queue, BULK, bulkAdmitted);
+        awaitQueued(queue, BULK);
+        var critical = startWaiter(queue, CRITICAL, criticalAdmitted);
+        awaitQueued(queue, CRITICAL);
+
+        queue.release();
+
+        assertTrue(criticalAdmitted.await(5, TimeUnit.SECONDS));
+        assertEquals(1, bulkAdmitted.getCount());
+        assertEquals(1, queue.queued(BULK));
+
+        queue.release();
+
+        assertTrue(bulkAdmitted.await(5, TimeUnit.SECONDS));
+        critical.join();
+        bulk.join();
+    }
+
+    @Test
+    void testAcquire_whenWaitExpires_thenReject() throws Exception {
+        var queue = queue(1, 0, 0, Duration.ofMillis(50));
+        assertTrue(queue.acquire(CRITICAL));
+
+        assertFalse(queue.acquire(CRITICAL));
+
+        assertEquals(0, queue.queued(CRITICAL));
+        assertEquals(1, meterRegistry.get("admission.wait").tag("tier", "critical").timer().count());
+    }
+
+    @Test
+    void testAcquire_whenTierQueueFull_thenRejectWithoutWaiting() throws Exception {
+        var tiers = Map.of(
+                CRITICAL, new PriorityAdmissionQueue.Tier(0, 1, Duration.ofSeconds(10)),
+                STANDARD, new PriorityAdmissionQueue.Tier(0, 0, Duration.ofSeconds(10)),
+                BULK, new PriorityAdmissionQueue.Tier(0, 0, Duration.ofSeconds(10)));
+        var queue = new PriorityAdmissionQueue("test", 1, tiers, meterRegistry);
+        assertTrue(queue.acquire(CRITICAL));
+
+        var start = System.nanoTime();
+        assertFalse(queue.acquire(STANDARD));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void testConstructor_whenReservesExceedCapacity_thenThrow() {
+        assertThrows(IllegalArgumentException.class, () -> queue(2, 1, 1, Duration.ZERO));
+    }
+
+    private PriorityAdmissionQueue queue(int capacity, int criticalReserve, int standardReserve, Duration maxWait) {
+        var tiers = Map.of(
+                CRITICAL, new PriorityAdmissionQueue.Tier(criticalReserve, 10, maxWait),
+                STANDARD, new PriorityAdmissionQueue.Tier(standardReserve, 10, maxWait),
+                BULK, new PriorityAdmissionQueue.Tier(0, 10, maxWait));
+        return new PriorityAdmissionQueue("test", capacity, tiers, meterRegistry);
+    }
+
+    private static Thread startWaiter(PriorityAdmissionQueue queue, RequestPriority priority, CountDownLatch admitted) {
+        var thread = new Thread(() -> {
+            try {
+                if (queue.acquire(priority)) {
+                    admitted.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitQueued(PriorityAdmissionQueue queue, RequestPriority priority) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queue.queued(priority) == 0) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + priority + " to queue");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.merufureku.aromatica.auth_service.benchmark;
+
+import com.merufureku.aromatica.auth_service.config.KeyConfig;
+import com.merufureku.aromatica.auth_service.utilities.JwtKeyRing;
+import com.merufureku.aromatica.auth_service.utilities.TokenUtility;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.ACCESS_TOKEN;
+
+/**
+ * Compares access token signing and verification throughput of the shared HMAC secret against
+ * the ES256 key pair. ES256 costs more per token on this service, in exchange for every other
+ * service verifying locally.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhArgs=SigningAlgorithmBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigningAlgorithmBenchmark {
+
+    @Param({"HS256", "ES256"})
+    private String algorithm;
+
+    private String token;
+    private TokenUtility tokenUtility;
+
+    @Setup
+    public void setUp() throws Exception {
+        var keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        var secret = Base64.getEncoder().encodeToString(keyBytes);
+
+        var generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        var keyPair = generator.generateKeyPair();
+
+        var keyConfig = new KeyConfig();
+        ReflectionTestUtils.setField(keyConfig, "jwtAccessSecretKey", secret);
+        ReflectionTestUtils.setField(keyConfig, "jwtRefreshSecretKey", secret);
+        ReflectionTestUtils.setField(keyConfig, "jwtAccessPreviousKeys", new String[0]);
+        ReflectionTestUtils.setField(keyConfig, "jwtRefreshPreviousKeys", new String[0]);
+        ReflectionTestUtils.setField(keyConfig, "jwtAccessSigningAlgorithm", algorithm);
+        ReflectionTestUtils.setField(keyConfig, "jwtAccessPrivateKey",
+                Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+        ReflectionTestUtils.setField(keyConfig, "jwtAccessPublicKey",
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+        ReflectionTestUtils.setField(keyConfig, "jwtAccessPreviousPublicKeys", new String[0]);
+
+        tokenUtility = new TokenUtility(new JwtKeyRing(keyConfig));
+        token = tokenUtility.generateToken(UUID.randomUUID().toString(), 1, ACCESS_TOKEN, "USER");
+    }
+
+    @Benchmark
+    public String sign() {
+        return tokenUtility.generateToken("benchmark-jti", 1, ACCESS_TOKEN, "USER");
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return tokenUtility.parseToken(token, ACCESS_TOKEN);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SigningAlgorithmBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
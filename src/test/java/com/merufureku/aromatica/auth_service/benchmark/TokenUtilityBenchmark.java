@@ -0,0 +1,97 @@
+package com.merufureku.aromatica.auth_service.benchmark;
+
+import com.merufureku.aromatica.auth_service.config.KeyConfig;
+import com.merufureku.aromatica.auth_service.utilities.JwtKeyRing;
+import com.merufureku.aromatica.auth_service.utilities.TokenUtility;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.ACCESS_TOKEN;
+
+/**
+ * Compares the key ring backed {@link TokenUtility} against the previous per-call path that
+ * decoded the secret and built a new parser for every token.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhArgs=TokenUtilityBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenUtilityBenchmark {
+
+    private String secret;
+    private String token;
+    private TokenUtility tokenUtility;
+
+    @Setup
+    public void setUp() {
+        var keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        secret = Base64.getEncoder().encodeToString(keyBytes);
+
+        var keyConfig = new KeyConfig();
+        ReflectionTestUtils.setField(keyConfig, "jwtAccessSecretKey", secret);
+        ReflectionTestUtils.setField(keyConfig, "jwtRefreshSecretKey", secret);
+        ReflectionTestUtils.setField(keyConfig, "jwtAccessPreviousKeys", new String[0]);
+        ReflectionTestUtils.setField(keyConfig, "jwtRefreshPreviousKeys", new String[0]);
+
+        tokenUtility = new TokenUtility(new JwtKeyRing(keyConfig));
+        token = tokenUtility.generateToken(UUID.randomUUID().toString(), 1, ACCESS_TOKEN, "USER");
+    }
+
+    @Benchmark
+    public Claims parsePerCall() {
+        var secretKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret));
+
+        return Jwts.parser()
+                .verifyWith(secretKey)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Benchmark
+    public Claims parseKeyRing() {
+        return tokenUtility.parseToken(token, ACCESS_TOKEN);
+    }
+
+    @Benchmark
+    public String generatePerCall() {
+        var secretKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret));
+
+        return Jwts.builder()
+                .id("benchmark-jti")
+                .claim("userId", 1)
+                .claim("role", "USER")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 15L * 60 * 1000))
+                .signWith(secretKey)
+                .compact();
+    }
+
+    @Benchmark
+    public String generateKeyRing() {
+        return tokenUtility.generateToken("benchmark-jti", 1, ACCESS_TOKEN, "USER");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenUtilityBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,143 @@
+package com.merufureku.aromatica.auth_service.cache;
+
+import com.merufureku.aromatica.auth_service.dto.responses.MyDetailsResponse;
+import com.merufureku.aromatica.auth_service.exception.ServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.merufureku.aromatica.auth_service.enums.CustomStatusEnums.NO_USER_FOUND;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProfileCacheTest {
+
+    private static final long TTL_SECONDS = 60;
+
+    @Mock
+    private ProfileInvalidationBroadcast broadcast;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicLong millis = new AtomicLong(1_000_000);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProfileCache profileCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        profileCache = new ProfileCache(broadcast, meterRegistry, 100, TTL_SECONDS, nanos::get, millis::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testGet_whenCached_thenLoadOnce() {
+        var first = profileCache.get(1, this::load);
+        nanos.addAndGet(Duration.ofSeconds(5).toNanos());
+        var second = profileCache.get(1, this::load);
+
+        assertEquals(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(0.5, meterRegistry.get("profile.cache.hit.ratio").gauge().value());
+        assertEquals(5.0, meterRegistry.get("profile.cache.entry.age").timer().max(TimeUnit.SECONDS));
+        verify(broadcast).subscribe(profileCache);
+    }
+
+    @Test
+    void testGet_whenTtlElapsed_thenReload() {
+        profileCache.get(1, this::load);
+        nanos.addAndGet(Duration.ofSeconds(TTL_SECONDS).toNanos());
+        profileCache.get(1, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_whenLoaderThrows_thenNothingCached() {
+        var exception = assertThrows(ServiceException.class,
+                () -> profileCache.get(1, userId -> { throw new ServiceException(NO_USER_FOUND); }));
+
+        assertEquals(NO_USER_FOUND, exception.getCustomStatusEnums());
+        profileCache.get(1, this::load);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testInvalidate_whenNoTransaction_thenEvictAndPublish() {
+        profileCache.get(1, this::load);
+
+        profileCache.invalidate(1);
+        profileCache.get(1, this::load);
+
+        assertEquals(2, loads.get());
+        verify(broadcast, times(1)).publish(1);
+    }
+
+    @Test
+    void testInvalidate_whenInTransaction_thenEvictAfterCommit() {
+        profileCache.get(1, this::load);
+        TransactionSynchronizationManager.initSynchronization();
+
+        profileCache.invalidate(1);
+        profileCache.get(1, this::load);
+
+        assertEquals(1, loads.get());
+        verify(broadcast, never()).publish(any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        profileCache.get(1, this::load);
+
+        assertEquals(2, loads.get());
+        verify(broadcast, times(1)).publish(1);
+    }
+
+    @Test
+    void testInvalidated_whenRemoteNodeChangedUser_thenEvictAndRecordLag() {
+        profileCache.get(1, this::load);
+        profileCache.get(2, this::load);
+
+        profileCache.invalidated(1, millis.get() - 40);
+        profileCache.get(1, this::load);
+        profileCache.get(2, this::load);
+
+        assertEquals(3, loads.get());
+        assertEquals(40.0, meterRegistry.get("profile.cache.invalidation.lag").timer().max(TimeUnit.MILLISECONDS));
+        verify(broadcast, never()).publish(any());
+    }
+
+    @Test
+    void testMissedInvalidations_thenClearEverything() {
+        profileCache.get(1, this::load);
+        profileCache.get(2, this::load);
+
+        profileCache.missedInvalidations();
+        profileCache.get(1, this::load);
+        profileCache.get(2, this::load);
+
+        assertEquals(4, loads.get());
+    }
+
+    private MyDetailsResponse load(Integer userId) {
+        loads.incrementAndGet();
+        return new MyDetailsResponse(userId, "user" + userId + "@example.com", "First", "Last", 1);
+    }
+}
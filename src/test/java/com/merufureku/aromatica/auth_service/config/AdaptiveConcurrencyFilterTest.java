@@ -0,0 +1,65 @@
+package com.merufureku.aromatica.auth_service.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AdaptiveConcurrencyFilter filter = new AdaptiveConcurrencyFilter(meterRegistry,
+            Set.of("/login"), 1, 1, 1, 0.2, 1.5);
+
+    @Test
+    void testDoFilter_whenLimitReached_thenReturn503() throws Exception {
+        var nested = new MockHttpServletResponse();
+        FilterChain chain = (request, response) ->
+                filter.doFilter(loginRequest(), nested, new MockFilterChain());
+
+        var outer = new MockHttpServletResponse();
+        filter.doFilter(loginRequest(), outer, chain);
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, nested.getStatus());
+        assertEquals("1", nested.getHeader("Retry-After"));
+        assertEquals(1.0, meterRegistry.get("concurrency.rejected").counter().count());
+        assertEquals(0, filter.concurrencyLimit().inflight());
+    }
+
+    @Test
+    void testDoFilter_whenDownstreamOverloaded_thenCountDropped() throws Exception {
+        FilterChain chain = (request, response) ->
+                ((MockHttpServletResponse) response).setStatus(503);
+
+        filter.doFilter(loginRequest(), new MockHttpServletResponse(), chain);
+
+        assertEquals(1.0, meterRegistry.get("concurrency.dropped").counter().count());
+        assertEquals(0, filter.concurrencyLimit().inflight());
+    }
+
+    @Test
+    void testDoFilter_whenPathNotLimited_thenPassThrough() throws Exception {
+        var request = new MockHttpServletRequest("GET", "/auth/me");
+        request.setServletPath("/auth/me");
+        var chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertSame(request, chain.getRequest());
+        assertEquals(0.0, meterRegistry.get("concurrency.rejected").counter().count());
+    }
+
+    private static MockHttpServletRequest loginRequest() {
+        var request = new MockHttpServletRequest("POST", "/login");
+        request.setServletPath("/login");
+        return request;
+    }
+}
@@ -0,0 +1,87 @@
+package com.merufureku.aromatica.auth_service.config;
+
+import com.merufureku.aromatica.auth_service.utilities.PasswordHashingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordEncoderConfigTest {
+
+    private PasswordHashingExecutor hashingExecutor;
+
+    @BeforeEach
+    void setUp() {
+        hashingExecutor = new PasswordHashingExecutor(new SimpleMeterRegistry(), 1, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void testPasswordEncoder_whenLegacyBcryptHash_thenMatchAndRequestUpgrade() {
+        var encoder = passwordEncoder("bcrypt", 4);
+        var legacyHash = new BCryptPasswordEncoder(4).encode("password123");
+
+        assertTrue(encoder.matches("password123", legacyHash));
+        assertTrue(encoder.upgradeEncoding(legacyHash));
+    }
+
+    @Test
+    void testPasswordEncoder_whenHashUsesConfiguredParameters_thenNoUpgrade() {
+        var encoder = passwordEncoder("bcrypt", 4);
+        var hash = encoder.encode("password123");
+
+        assertTrue(hash.startsWith("{bcrypt}"));
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    void testPasswordEncoder_whenBcryptCostRaised_thenRequestUpgrade() {
+        var weakHash = passwordEncoder("bcrypt", 4).encode("password123");
+
+        var encoder = passwordEncoder("bcrypt", 5);
+
+        assertTrue(encoder.matches("password123", weakHash));
+        assertTrue(encoder.upgradeEncoding(weakHash));
+    }
+
+    @Test
+    void testPasswordEncoder_whenSwitchedToArgon2_thenUpgradeBcryptHashes() {
+        var bcryptHash = passwordEncoder("bcrypt", 4).encode("password123");
+
+        var encoder = passwordEncoder("argon2", 4);
+        var argon2Hash = encoder.encode("password123");
+
+        assertTrue(argon2Hash.startsWith("{argon2}$argon2id$"));
+        assertTrue(encoder.matches("password123", bcryptHash));
+        assertTrue(encoder.upgradeEncoding(bcryptHash));
+        assertFalse(encoder.upgradeEncoding(argon2Hash));
+    }
+
+    @Test
+    void testPasswordEncoder_whenUnknownAlgorithm_thenThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> passwordEncoder("md5", 4));
+    }
+
+    private PasswordEncoder passwordEncoder(String algorithm, int bcryptStrength) {
+        var config = new PasswordHashingConfig();
+        ReflectionTestUtils.setField(config, "algorithm", algorithm);
+        ReflectionTestUtils.setField(config, "bcryptStrength", bcryptStrength);
+        ReflectionTestUtils.setField(config, "argon2SaltLength", 16);
+        ReflectionTestUtils.setField(config, "argon2HashLength", 32);
+        ReflectionTestUtils.setField(config, "argon2Parallelism", 1);
+        ReflectionTestUtils.setField(config, "argon2MemoryKib", 1024);
+        ReflectionTestUtils.setField(config, "argon2Iterations", 1);
+
+        return new PasswordEncoderConfig().passwordEncoder(config, hashingExecutor, new SimpleMeterRegistry());
+    }
+}
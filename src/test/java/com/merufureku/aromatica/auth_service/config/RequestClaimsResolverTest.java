@@ -0,0 +1,154 @@
+package com.merufureku.aromatica.auth_service.config;
+
+import com.merufureku.aromatica.auth_service.admission.AdmissionRejectedException;
+import com.merufureku.aromatica.auth_service.admission.RequestPriority;
+import com.merufureku.aromatica.auth_service.helper.TokenHelper;
+import com.merufureku.aromatica.auth_service.ratelimit.BucketSpec;
+import com.merufureku.aromatica.auth_service.ratelimit.RateLimitBackend;
+import com.merufureku.aromatica.auth_service.ratelimit.RateLimitKey;
+import com.merufureku.aromatica.auth_service.ratelimit.RateLimitPolicy;
+import com.merufureku.aromatica.auth_service.ratelimit.RateLimitPolicyDefinition;
+import com.merufureku.aromatica.auth_service.ratelimit.RateLimitPolicyRegistry;
+import com.merufureku.aromatica.auth_service.ratelimit.RateLimitScope;
+import com.merufureku.aromatica.auth_service.utilities.JwtKeyRing;
+import com.merufureku.aromatica.auth_service.utilities.TokenUtility;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.ACCESS_TOKEN;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RequestClaimsResolverTest {
+
+    private static final String CHANGE_PASSWORD = "/auth/me/change-password";
+
+    @Mock
+    private KeyConfig keyConfig;
+
+    @Mock
+    private RateLimitPolicyRegistry policyRegistry;
+
+    @Mock
+    private RateLimitBackend rateLimitBackend;
+
+    @Mock
+    private TokenHelper tokenHelper;
+
+    private TokenUtility tokenUtility;
+    private RateLimitFilter rateLimitFilter;
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @BeforeEach
+    void setUp() {
+        when(keyConfig.getJwtAccessSecretKey()).thenReturn(randomSecret());
+        when(keyConfig.getJwtRefreshSecretKey()).thenReturn(randomSecret());
+        tokenUtility = spy(new TokenUtility(new JwtKeyRing(keyConfig)));
+
+        var claimsResolver = new RequestClaimsResolver(tokenUtility);
+        rateLimitFilter = new RateLimitFilter(policyRegistry, rateLimitBackend, claimsResolver, new SimpleMeterRegistry());
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(claimsResolver, tokenHelper);
+
+        var definition = new RateLimitPolicyDefinition(CHANGE_PASSWORD, RateLimitScope.USER,
+                List.of(new RateLimitPolicyDefinition.LimitDefinition(3, Duration.ofMinutes(5))));
+        lenient().when(policyRegistry.match(CHANGE_PASSWORD))
+                .thenReturn(new RateLimitPolicy(0, definition, BucketSpec.of(3, Duration.ofMinutes(5))));
+        lenient().when(rateLimitBackend.tryConsume(any(), any())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testFilterChain_whenUserScopedPolicy_thenTokenVerifiedOnce() throws Exception {
+        var token = tokenUtility.generateToken("test-jti", 7, ACCESS_TOKEN, "USER");
+        var authentication = new AtomicReference<Authentication>();
+
+        runChain(request("Bearer " + token), authentication);
+
+        verify(tokenUtility, times(1)).parseToken(token, ACCESS_TOKEN);
+        verify(tokenHelper).validateAccessToken(any(), eq(token));
+        assertEquals(7, authentication.get().getPrincipal());
+
+        var key = ArgumentCaptor.forClass(RateLimitKey.class);
+        verify(rateLimitBackend).tryConsume(key.capture(), any());
+        assertEquals(RateLimitKey.SCOPE_USER, key.getValue().scope());
+    }
+
+    @Test
+    void testFilterChain_whenTokenInvalid_thenVerifiedOnceAndNotAuthenticated() throws Exception {
+        var authentication = new AtomicReference<Authentication>();
+
+        runChain(request("Bearer not-a-token"), authentication);
+
+        verify(tokenUtility, times(1)).parseToken(anyString(), anyString());
+        verifyNoInteractions(tokenHelper);
+        assertNull(authentication.get());
+    }
+
+    @Test
+    void testFilterChain_whenDatabaseGateRejects_thenServiceUnavailable() throws Exception {
+        var token = tokenUtility.generateToken("test-jti", 7, ACCESS_TOKEN, "USER");
+        doThrow(new CannotCreateTransactionException("No connection",
+                new AdmissionRejectedException("database", RequestPriority.STANDARD)))
+                .when(tokenHelper).validateAccessToken(any(), eq(token));
+        var response = new MockHttpServletResponse();
+        var reached = new AtomicReference<Boolean>(false);
+
+        jwtAuthenticationFilter.doFilter(request("Bearer " + token), response, (req, res) -> reached.set(true));
+
+        assertEquals(503, response.getStatus());
+        assertNotNull(response.getHeader("Retry-After"));
+        assertFalse(reached.get());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void testResolve_whenNoBearerToken_thenNull() {
+        var resolver = new RequestClaimsResolver(tokenUtility);
+
+        assertNull(resolver.resolve(request(null)));
+        verify(tokenUtility, never()).parseToken(anyString(), anyString());
+    }
+
+    private void runChain(MockHttpServletRequest request, AtomicReference<Authentication> authentication) throws Exception {
+        rateLimitFilter.doFilter(request, new MockHttpServletResponse(), (rateLimitedRequest, rateLimitedResponse) ->
+                jwtAuthenticationFilter.doFilter(rateLimitedRequest, rateLimitedResponse, (authenticatedRequest, authenticatedResponse) ->
+                        authentication.set(SecurityContextHolder.getContext().getAuthentication())));
+    }
+
+    private static MockHttpServletRequest request(String authorization) {
+        var request = new MockHttpServletRequest("POST", CHANGE_PASSWORD);
+        request.setServletPath(CHANGE_PASSWORD);
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        return request;
+    }
+
+    private static String randomSecret() {
+        var bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
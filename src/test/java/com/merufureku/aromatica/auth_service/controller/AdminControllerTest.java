@@ -0,0 +1,112 @@
+package com.merufureku.aromatica.auth_service.controller;
+
+import com.merufureku.aromatica.auth_service.admission.PriorityAdmissionQueue;
+import com.merufureku.aromatica.auth_service.config.RequestClaimsResolver;
+import com.merufureku.aromatica.auth_service.config.SecurityConfig;
+import com.merufureku.aromatica.auth_service.exception.CustomAccessDeniedHandler;
+import com.merufureku.aromatica.auth_service.exception.CustomAuthenticationEntryPoint;
+import com.merufureku.aromatica.auth_service.helper.RoleCatalog;
+import com.merufureku.aromatica.auth_service.helper.TokenHelper;
+import com.merufureku.aromatica.auth_service.ratelimit.RateLimitBackend;
+import com.merufureku.aromatica.auth_service.ratelimit.RateLimitPolicyRegistry;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the real security chain in front of the controller. Token parsing is stubbed, the
+ * role in the stubbed claims is what the request is authorized with.
+ */
+@WebMvcTest(AdminController.class)
+@Import({SecurityConfig.class, CustomAccessDeniedHandler.class, CustomAuthenticationEntryPoint.class,
+        AdminControllerTest.Metrics.class})
+class AdminControllerTest {
+
+    private static final String RELOAD_ROLES = "/admin/roles/reload";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private RoleCatalog roleCatalog;
+
+    @MockitoBean
+    private RequestClaimsResolver claimsResolver;
+
+    @MockitoBean
+    private TokenHelper tokenHelper;
+
+    @MockitoBean
+    private RateLimitPolicyRegistry policyRegistry;
+
+    @MockitoBean
+    private RateLimitBackend rateLimitBackend;
+
+    @MockitoBean(name = "requestAdmissionQueue")
+    private PriorityAdmissionQueue admissionQueue;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(admissionQueue.acquire(any())).thenReturn(true);
+    }
+
+    @Test
+    void testReloadRoles_whenUserToken_thenForbidden() throws Exception {
+        tokenWithRole("USER");
+
+        mockMvc.perform(post(RELOAD_ROLES).header("Authorization", "Bearer user-token"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.status").value(403));
+
+        verifyNoInteractions(roleCatalog);
+    }
+
+    @Test
+    void testReloadRoles_whenAdminToken_thenReload() throws Exception {
+        tokenWithRole("ADMIN");
+        when(roleCatalog.reload()).thenReturn(3);
+
+        mockMvc.perform(post(RELOAD_ROLES).header("Authorization", "Bearer admin-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.roles").value(3));
+    }
+
+    @Test
+    void testReloadRoles_whenNoToken_thenUnauthorized() throws Exception {
+        mockMvc.perform(post(RELOAD_ROLES))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(roleCatalog);
+    }
+
+    private void tokenWithRole(String role) {
+        when(claimsResolver.resolve(any())).thenReturn(Jwts.claims()
+                .add("userId", 1)
+                .add("role", role)
+                .build());
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.merufureku.aromatica.auth_service.controller;
+
+import com.merufureku.aromatica.auth_service.admission.PriorityAdmissionQueue;
+import com.merufureku.aromatica.auth_service.config.RequestClaimsResolver;
+import com.merufureku.aromatica.auth_service.config.SecurityConfig;
+import com.merufureku.aromatica.auth_service.dto.responses.BaseResponse;
+import com.merufureku.aromatica.auth_service.dto.responses.IntrospectBatchResponse;
+import com.merufureku.aromatica.auth_service.exception.CustomAccessDeniedHandler;
+import com.merufureku.aromatica.auth_service.exception.CustomAuthenticationEntryPoint;
+import com.merufureku.aromatica.auth_service.helper.TokenHelper;
+import com.merufureku.aromatica.auth_service.ratelimit.RateLimitBackend;
+import com.merufureku.aromatica.auth_service.ratelimit.RateLimitPolicyRegistry;
+import com.merufureku.aromatica.auth_service.services.factory.AuthServiceFactory;
+import com.merufureku.aromatica.auth_service.services.interfaces.IAuthService;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the real security chain in front of the controller. Token parsing is stubbed, the
+ * role in the stubbed claims is what the request is authorized with.
+ */
+@WebMvcTest(AuthServiceController.class)
+@Import({SecurityConfig.class, CustomAccessDeniedHandler.class, CustomAuthenticationEntryPoint.class,
+        AuthServiceControllerTest.Metrics.class})
+class AuthServiceControllerTest {
+
+    private static final String INTROSPECT_BATCH = "/auth/introspect/batch";
+    private static final String BODY = "{\"tokens\":[\"some-token\"]}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AuthServiceFactory authServiceFactory;
+
+    @MockitoBean
+    private RequestClaimsResolver claimsResolver;
+
+    @MockitoBean
+    private TokenHelper tokenHelper;
+
+    @MockitoBean
+    private RateLimitPolicyRegistry policyRegistry;
+
+    @MockitoBean
+    private RateLimitBackend rateLimitBackend;
+
+    @MockitoBean(name = "requestAdmissionQueue")
+    private PriorityAdmissionQueue admissionQueue;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(admissionQueue.acquire(any())).thenReturn(true);
+    }
+
+    @Test
+    void testIntrospectBatch_whenGatewayToken_thenIntrospect() throws Exception {
+        tokenWithRole("GATEWAY");
+        var authService = mock(IAuthService.class);
+        when(authServiceFactory.getService(1)).thenReturn(authService);
+        when(authService.introspectBatch(any(), any())).thenReturn(new BaseResponse<>(200, "Introspect Success",
+                new IntrospectBatchResponse(List.of(IntrospectBatchResponse.Result.INACTIVE))));
+
+        mockMvc.perform(introspect().header("Authorization", "Bearer gateway-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.results[0].active").value(false));
+    }
+
+    @Test
+    void testIntrospectBatch_whenUserToken_thenForbidden() throws Exception {
+        tokenWithRole("USER");
+
+        mockMvc.perform(introspect().header("Authorization", "Bearer user-token"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(authServiceFactory);
+    }
+
+    @Test
+    void testIntrospectBatch_whenNoToken_thenUnauthorized() throws Exception {
+        mockMvc.perform(introspect())
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(authServiceFactory);
+    }
+
+    private static MockHttpServletRequestBuilder introspect() {
+        return post(INTROSPECT_BATCH).contentType(MediaType.APPLICATION_JSON).content(BODY);
+    }
+
+    private void tokenWithRole(String role) {
+        when(claimsResolver.resolve(any())).thenReturn(Jwts.claims()
+                .add("userId", 1)
+                .add("role", role)
+                .build());
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
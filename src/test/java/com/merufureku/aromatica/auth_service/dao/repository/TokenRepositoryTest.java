@@ -0,0 +1,149 @@
+package com.merufureku.aromatica.auth_service.dao.repository;
+
+import com.merufureku.aromatica.auth_service.dao.entity.Token;
+import com.merufureku.aromatica.auth_service.dao.entity.Users;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.*;
+import static com.merufureku.aromatica.auth_service.utilities.TokenUtility.fingerprint;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.merufureku.aromatica.auth_service.dao.repository.SqlStatementRecorder",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class TokenRepositoryTest {
+
+    private static final Pattern FROM_TOKEN_TABLE = Pattern.compile("\\bfrom token\\b");
+    private static final Pattern OTHER_TABLES = Pattern.compile("\\b(join|users|user_details|user_roles|roles)\\b");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Users user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(Users.builder()
+                .username("testuser")
+                .password("encoded-password")
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        saveToken(ACCESS_TOKEN, "test-jti", "test-token-value");
+
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementRecorder.clear();
+    }
+
+    @Test
+    void testFindFingerprint_whenTokenExists_thenQueryOnlyTokenTable() {
+        var fingerprint = tokenRepository.findFingerprint(user.getId(), "test-jti", ACCESS_TOKEN);
+
+        assertTrue(fingerprint.isPresent());
+        assertArrayEquals(fingerprint("test-token-value"), fingerprint.get().tokenHash());
+        assertNotNull(fingerprint.get().expirationDt());
+
+        var statements = SqlStatementRecorder.statements();
+        assertEquals(1, statements.size());
+
+        var sql = statements.getFirst().toLowerCase();
+        assertTrue(FROM_TOKEN_TABLE.matcher(sql).find(), sql);
+        assertFalse(OTHER_TABLES.matcher(sql).find(), sql);
+    }
+
+    @Test
+    void testFindFingerprint_whenTypeMismatch_thenReturnEmpty() {
+        var fingerprint = tokenRepository.findFingerprint(user.getId(), "test-jti", REFRESH_TOKEN);
+
+        assertTrue(fingerprint.isEmpty());
+    }
+
+    @Test
+    void testDeleteByUserId_whenManyTokensOutstanding_thenIssueSingleStatement() {
+        for (int i = 0; i < 19; i++) {
+            saveToken(i % 2 == 0 ? ACCESS_TOKEN : REFRESH_TOKEN, "jti-" + i, "token-value-" + i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementRecorder.clear();
+
+        var deleted = tokenRepository.deleteByUserId(user.getId());
+
+        assertEquals(20, deleted);
+        assertEquals(1, SqlStatementRecorder.statements().size());
+        assertTrue(SqlStatementRecorder.statements().getFirst().toLowerCase().startsWith("delete"));
+    }
+
+    @Test
+    void testDeleteByUserId_whenSingleTokenOutstanding_thenIssueSingleStatement() {
+        var deleted = tokenRepository.deleteByUserId(user.getId());
+
+        assertEquals(1, deleted);
+        assertEquals(1, SqlStatementRecorder.statements().size());
+    }
+
+    @Test
+    void testDeleteByUserIdAndType_thenDeleteOnlyMatchingType() {
+        saveToken(REFRESH_TOKEN, "refresh-jti", "refresh-token-value");
+        entityManager.flush();
+        SqlStatementRecorder.clear();
+
+        var deleted = tokenRepository.deleteByUserIdAndType(user.getId(), ACCESS_TOKEN);
+
+        assertEquals(1, deleted);
+        assertEquals(1, SqlStatementRecorder.statements().size());
+        assertTrue(tokenRepository.findFingerprint(user.getId(), "refresh-jti", REFRESH_TOKEN).isPresent());
+    }
+
+    @Test
+    void testSaveAll_whenLoginTokenPair_thenWriteSingleBatch() {
+        // Before sequence ids every login paid two INSERT round trips (IDENTITY disables batching)
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        tokenRepository.saveAll(List.of(
+                newToken(ACCESS_TOKEN, "access-jti", "access-token-value"),
+                newToken(REFRESH_TOKEN, "refresh-jti", "refresh-token-value")));
+        entityManager.flush();
+
+        assertEquals(2, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private void saveToken(String type, String jti, String value) {
+        entityManager.persist(newToken(type, jti, value));
+    }
+
+    private Token newToken(String type, String jti, String value) {
+        var timeNow = LocalDateTime.now();
+
+        return Token.builder()
+                .userId(user.getId())
+                .tokenHash(fingerprint(value))
+                .type(type)
+                .jti(jti)
+                .createdDt(timeNow)
+                .expirationDt(timeNow.plusMinutes(ACCESS_TOKEN_EXPIRATION_MINUTES))
+                .build();
+    }
+}
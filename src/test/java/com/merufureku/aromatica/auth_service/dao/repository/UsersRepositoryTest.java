@@ -0,0 +1,215 @@
+package com.merufureku.aromatica.auth_service.dao.repository;
+
+import com.merufureku.aromatica.auth_service.cache.ProfileCache;
+import com.merufureku.aromatica.auth_service.config.TokenConfig;
+import com.merufureku.aromatica.auth_service.dao.entity.Roles;
+import com.merufureku.aromatica.auth_service.dao.entity.Token;
+import com.merufureku.aromatica.auth_service.dao.entity.UserDetails;
+import com.merufureku.aromatica.auth_service.dao.entity.UserRoles;
+import com.merufureku.aromatica.auth_service.dao.entity.UserRolesPK;
+import com.merufureku.aromatica.auth_service.dao.entity.Users;
+import com.merufureku.aromatica.auth_service.dto.params.BaseParam;
+import com.merufureku.aromatica.auth_service.dto.params.LoginParam;
+import com.merufureku.aromatica.auth_service.dto.responses.MyDetailsResponse;
+import com.merufureku.aromatica.auth_service.helper.AuthServiceHelper;
+import com.merufureku.aromatica.auth_service.helper.RoleCatalog;
+import com.merufureku.aromatica.auth_service.helper.TokenHelper;
+import com.merufureku.aromatica.auth_service.helper.TokenRevocationList;
+import com.merufureku.aromatica.auth_service.scheduler.LastLoginBuffer;
+import com.merufureku.aromatica.auth_service.services.impl.AuthServiceImpl1;
+import com.merufureku.aromatica.auth_service.utilities.TokenUtility;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.ACCESS_TOKEN;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.merufureku.aromatica.auth_service.dao.repository.SqlStatementRecorder",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class UsersRepositoryTest {
+
+    private static final int ALLOCATION_WARMUP_CALLS = 200;
+    private static final int ALLOCATION_MEASURED_CALLS = 500;
+    private static final Pattern USER_DETAILS_TABLE = Pattern.compile("\\buser_details\\b");
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private RolesRepository rolesRepository;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Users user;
+
+    @BeforeEach
+    void setUp() {
+        var role = new Roles();
+        role.setRoleId(1);
+        role.setRoleName("USER");
+        entityManager.persist(role);
+
+        user = entityManager.persist(Users.builder()
+                .username("testuser")
+                .password(passwordEncoder.encode("password123"))
+                .createdAt(LocalDateTime.now())
+                .build());
+        entityManager.persist(UserRoles.builder()
+                .id(new UserRolesPK(user.getId(), role.getRoleId()))
+                .user(user)
+                .build());
+        entityManager.persist(UserDetails.builder()
+                .user(user)
+                .firstName("Mark")
+                .lastName("Mercado")
+                .email("mark@example.com")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+
+        entityManager.persist(Users.builder()
+                .username("noroleuser")
+                .password("encoded-password")
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        // Allocates the token id pool up front so the login below does not fetch the sequence
+        entityManager.persist(Token.builder()
+                .userId(user.getId())
+                .tokenHash(new byte[32])
+                .type(ACCESS_TOKEN)
+                .jti("warm-up-jti")
+                .createdDt(LocalDateTime.now())
+                .expirationDt(LocalDateTime.now().plusMinutes(5))
+                .build());
+
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementRecorder.clear();
+    }
+
+    @Test
+    void testFindLoginCredentials_whenUserHasRole_thenReturnInOneQuery() {
+        var credentials = usersRepository.findLoginCredentials("testuser");
+
+        assertTrue(credentials.isPresent());
+        assertEquals(user.getId(), credentials.get().userId());
+        assertTrue(passwordEncoder.matches("password123", credentials.get().password()));
+        assertEquals("USER", credentials.get().roleName());
+
+        var statements = SqlStatementRecorder.statements();
+        assertEquals(1, statements.size());
+        assertFalse(USER_DETAILS_TABLE.matcher(statements.getFirst().toLowerCase()).find(), statements.getFirst());
+    }
+
+    @Test
+    void testFindLoginCredentials_whenUserHasNoRole_thenReturnNullRoleName() {
+        var credentials = usersRepository.findLoginCredentials("noroleuser");
+
+        assertTrue(credentials.isPresent());
+        assertNull(credentials.get().roleName());
+    }
+
+    @Test
+    void testFindLoginCredentials_whenUserNotFound_thenReturnEmpty() {
+        assertTrue(usersRepository.findLoginCredentials("unknown").isEmpty());
+    }
+
+    @Test
+    void testFindMyDetails_whenUserExists_thenReturnProjectionInOneQuery() {
+        var myDetails = usersRepository.findMyDetails(user.getId());
+
+        assertEquals(Optional.of(new MyDetailsResponse(user.getId(), "mark@example.com", "Mark", "Mercado", 1)), myDetails);
+        assertEquals(1, SqlStatementRecorder.statements().size());
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void testFindMyDetails_whenComparedToEntityGraph_thenAllocateLess() {
+        var threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+
+        Runnable entityGraph = () -> {
+            var found = usersRepository.findById(user.getId()).orElseThrow();
+            new MyDetailsResponse(found.getId(), found.getUserDetails().getEmail(), found.getUserDetails().getFirstName(),
+                    found.getUserDetails().getLastName(), found.getUserRoles().getId().getRoleId());
+            entityManager.clear();
+        };
+        Runnable projection = () -> {
+            usersRepository.findMyDetails(user.getId()).orElseThrow();
+            entityManager.clear();
+        };
+
+        var before = allocatedBytesPerCall(threadMXBean, entityGraph);
+        var after = allocatedBytesPerCall(threadMXBean, projection);
+
+        assertTrue(after < before, "projection allocated " + after + " B/call, entity graph " + before + " B/call");
+    }
+
+    @Test
+    void testLogin_whenCredentialsValid_thenReadOnce() {
+        var tokenUtility = mock(TokenUtility.class);
+        when(tokenUtility.generateToken(anyString(), anyInt(), anyString(), anyString()))
+                .thenAnswer(invocation -> "token-" + invocation.getArgument(0));
+
+        var authServiceHelper = new AuthServiceHelper(usersRepository, new RoleCatalog(rolesRepository), passwordEncoder,
+                mock(LastLoginBuffer.class));
+        var tokenHelper = new TokenHelper(tokenUtility, tokenRepository, authServiceHelper,
+                mock(TokenRevocationList.class), mock(TokenConfig.class));
+        var authService = new AuthServiceImpl1(authServiceHelper, tokenHelper, usersRepository,
+                passwordEncoder, tokenUtility, new TransactionTemplate(transactionManager), mock(ProfileCache.class));
+
+        SqlStatementRecorder.clear();
+        var response = authService.login(new LoginParam("testuser", "password123"), new BaseParam(1, "testuser"));
+        entityManager.flush();
+
+        assertEquals(user.getId(), response.data().id());
+
+        var reads = SqlStatementRecorder.statements().stream()
+                .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                .toList();
+        assertEquals(1, reads.size(), reads.toString());
+    }
+
+    private static long allocatedBytesPerCall(com.sun.management.ThreadMXBean threadMXBean, Runnable call) {
+        for (int i = 0; i < ALLOCATION_WARMUP_CALLS; i++) {
+            call.run();
+        }
+
+        var threadId = Thread.currentThread().threadId();
+        var start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ALLOCATION_MEASURED_CALLS; i++) {
+            call.run();
+        }
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - start) / ALLOCATION_MEASURED_CALLS;
+    }
+}
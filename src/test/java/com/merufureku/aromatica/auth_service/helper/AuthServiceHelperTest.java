@@ -4,22 +4,21 @@ import com.merufureku.aromatica.auth_service.dao.entity.UserDetails;
 import com.merufureku.aromatica.auth_service.dao.entity.UserRoles;
 import com.merufureku.aromatica.auth_service.dao.entity.UserRolesPK;
 import com.merufureku.aromatica.auth_service.dao.entity.Users;
-import com.merufureku.aromatica.auth_service.dao.repository.RolesRepository;
 import com.merufureku.aromatica.auth_service.dao.repository.UsersRepository;
 import com.merufureku.aromatica.auth_service.dto.params.ChangePasswordParam;
 import com.merufureku.aromatica.auth_service.dto.params.RegisterParam;
 import com.merufureku.aromatica.auth_service.dto.params.UpdateUserDetailsParam;
 import com.merufureku.aromatica.auth_service.exception.ServiceException;
+import com.merufureku.aromatica.auth_service.scheduler.LastLoginBuffer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import com.merufureku.aromatica.auth_service.dao.entity.Roles;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
 
 import static com.merufureku.aromatica.auth_service.enums.CustomStatusEnums.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,12 +35,17 @@ class AuthServiceHelperTest {
     private UsersRepository usersRepository;
 
     @Mock
-    private RolesRepository rolesRepository;
+    private RoleCatalog roleCatalog;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private LastLoginBuffer lastLoginBuffer;
 
     private RegisterParam registerParam;
     private Users user;
     private UserDetails userDetails;
-    private Roles role;
     private UpdateUserDetailsParam updateUserDetailsParam;
 
     @BeforeEach
@@ -69,10 +73,6 @@ class AuthServiceHelperTest {
                 .userDetails(userDetails)
                 .build();
 
-        role = new Roles();
-        role.setRoleId(1);
-        role.setRoleName("USER");
-
         updateUserDetailsParam = new UpdateUserDetailsParam(
                 "Jane", "Smith", "jane@example.com", "+1234567891", "Updated bio", "Canada", "profile.jpg", "cover.jpg"
         );
@@ -80,7 +80,8 @@ class AuthServiceHelperTest {
 
     @Test
     void testSaveUser_whenValid_thenSaveUserSuccessfully() {
-        when(rolesRepository.findByRoleName("USER")).thenReturn(Optional.of(role));
+        when(roleCatalog.roleId("USER")).thenReturn(1);
+        when(passwordEncoder.encode("password123")).thenReturn("encoded-password");
         when(usersRepository.save(any(Users.class))).thenReturn(user);
 
         Users result = authServiceHelper.saveUser(registerParam);
@@ -90,30 +91,60 @@ class AuthServiceHelperTest {
         assertNotNull(result.getUserDetails());
         assertEquals("john@example.com", result.getUserDetails().getEmail());
 
-        verify(rolesRepository, times(1)).findByRoleName("USER");
-        verify(usersRepository, times(1)).save(any(Users.class));
+        verify(roleCatalog, times(1)).roleId("USER");
+        verify(passwordEncoder, times(1)).encode("password123");
+        verify(usersRepository, times(1)).save(argThat(saved -> "encoded-password".equals(saved.getPassword())
+                && saved.getUserRoles().getId().getRoleId() == 1));
     }
 
     @Test
     void testSaveUser_whenRoleNotFound_thenThrowException() {
-        when(rolesRepository.findByRoleName("USER")).thenReturn(Optional.empty());
+        when(roleCatalog.roleId("USER")).thenReturn(null);
 
         ServiceException exception = assertThrows(ServiceException.class,
                 () -> authServiceHelper.saveUser(registerParam));
 
         assertEquals(ROLE_NOT_FOUND, exception.getCustomStatusEnums());
-        verify(rolesRepository, times(1)).findByRoleName("USER");
+        verify(roleCatalog, times(1)).roleId("USER");
+        verify(passwordEncoder, never()).encode(any());
         verify(usersRepository, never()).save(any(Users.class));
     }
 
+    @Test
+    void testUpgradePasswordHash_whenHashIsOutdated_thenRehash() {
+        when(passwordEncoder.upgradeEncoding("encoded-password")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("{argon2}rehashed");
+
+        var upgraded = authServiceHelper.upgradePasswordHash(user.getId(), "encoded-password", "password123");
+
+        assertEquals("{argon2}rehashed", upgraded);
+    }
+
+    @Test
+    void testUpgradePasswordHash_whenHashIsCurrent_thenKeepHash() {
+        when(passwordEncoder.upgradeEncoding("encoded-password")).thenReturn(false);
+
+        var upgraded = authServiceHelper.upgradePasswordHash(user.getId(), "encoded-password", "password123");
+
+        assertNull(upgraded);
+        verify(passwordEncoder, never()).encode(any());
+    }
+
     @Test
     void testUpdateLastLoginDate_whenValid_thenUpdateSuccessfully() {
-        when(usersRepository.save(user)).thenReturn(user);
+        authServiceHelper.updateLastLoginDate(user.getId(), null);
 
-        authServiceHelper.updateLastLoginDate(user);
+        verify(lastLoginBuffer, times(1)).record(eq(user.getId()), any(LocalDateTime.class));
+        verify(usersRepository, never()).updatePassword(anyInt(), anyString());
+        verify(usersRepository, never()).save(any(Users.class));
+    }
 
-        assertNotNull(user.getLastLogin());
-        verify(usersRepository, times(1)).save(user);
+    @Test
+    void testUpdateLastLoginDate_whenHashUpgraded_thenUpdatePassword() {
+        authServiceHelper.updateLastLoginDate(user.getId(), "{argon2}rehashed");
+
+        verify(lastLoginBuffer, times(1)).record(eq(user.getId()), any(LocalDateTime.class));
+        verify(usersRepository, times(1)).updatePassword(user.getId(), "{argon2}rehashed");
     }
 
     @Test
@@ -186,14 +217,14 @@ class AuthServiceHelperTest {
 
         user.setUserRoles(userRoles);
 
-        when(rolesRepository.findById(1)).thenReturn(Optional.of(role));
+        when(roleCatalog.roleName(1)).thenReturn("USER");
 
         String result = authServiceHelper.getUserRole(user);
 
         assertNotNull(result);
         assertEquals("USER", result);
 
-        verify(rolesRepository, times(1)).findById(1);
+        verify(roleCatalog, times(1)).roleName(1);
     }
 
     @Test
@@ -220,13 +251,13 @@ class AuthServiceHelperTest {
 
         user.setUserRoles(userRoles);
 
-        when(rolesRepository.findById(1)).thenReturn(Optional.empty());
+        when(roleCatalog.roleName(1)).thenReturn(null);
 
         ServiceException exception = assertThrows(ServiceException.class,
                 () -> authServiceHelper.getUserRole(user));
 
         assertEquals(USER_HAS_NO_ROLES, exception.getCustomStatusEnums());
-        verify(rolesRepository, times(1)).findById(1);
+        verify(roleCatalog, times(1)).roleName(1);
     }
 }
 
@@ -0,0 +1,105 @@
+package com.merufureku.aromatica.auth_service.helper;
+
+import com.merufureku.aromatica.auth_service.dao.entity.Roles;
+import com.merufureku.aromatica.auth_service.dao.repository.RolesRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoleCatalogTest {
+
+    @Mock
+    private RolesRepository rolesRepository;
+
+    @Test
+    void testResolve_whenLoaded_thenNoFurtherQueries() {
+        when(rolesRepository.findAll()).thenReturn(List.of(role(1, "USER"), role(3, "ADMIN")));
+
+        var roleCatalog = new RoleCatalog(rolesRepository);
+
+        assertEquals("USER", roleCatalog.roleName(1));
+        assertEquals("ADMIN", roleCatalog.roleName(3));
+        assertEquals(1, roleCatalog.roleId("USER"));
+        assertEquals(3, roleCatalog.roleId("ADMIN"));
+        assertEquals(2, roleCatalog.size());
+        verify(rolesRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testResolve_whenRoleUnknown_thenReturnNull() {
+        when(rolesRepository.findAll()).thenReturn(List.of(role(1, "USER")));
+
+        var roleCatalog = new RoleCatalog(rolesRepository);
+
+        assertNull(roleCatalog.roleName(2));
+        assertNull(roleCatalog.roleName(-1));
+        assertNull(roleCatalog.roleName(RoleCatalog.MAX_ROLE_ID));
+        assertNull(roleCatalog.roleId("ADMIN"));
+    }
+
+    @Test
+    void testReload_whenRolesChanged_thenServeNewRoles() {
+        when(rolesRepository.findAll())
+                .thenReturn(List.of(role(1, "USER")))
+                .thenReturn(List.of(role(1, "USER"), role(2, "ADMIN")));
+
+        var roleCatalog = new RoleCatalog(rolesRepository);
+        assertNull(roleCatalog.roleName(2));
+
+        assertEquals(2, roleCatalog.reload());
+        assertEquals("ADMIN", roleCatalog.roleName(2));
+        assertEquals(2, roleCatalog.roleId("ADMIN"));
+    }
+
+    @Test
+    void testReload_whenRoleIdOutOfRange_thenKeepCurrentRoles() {
+        when(rolesRepository.findAll())
+                .thenReturn(List.of(role(1, "USER")))
+                .thenReturn(List.of(role(RoleCatalog.MAX_ROLE_ID, "ADMIN")));
+
+        var roleCatalog = new RoleCatalog(rolesRepository);
+
+        assertThrows(IllegalStateException.class, roleCatalog::reload);
+        assertEquals("USER", roleCatalog.roleName(1));
+    }
+
+    @Test
+    void testRefresh_whenRolesChanged_thenServeNewRoles() {
+        when(rolesRepository.findAll())
+                .thenReturn(List.of(role(1, "USER")))
+                .thenReturn(List.of(role(1, "USER"), role(2, "ADMIN")));
+
+        var roleCatalog = new RoleCatalog(rolesRepository);
+        roleCatalog.refresh();
+
+        assertEquals("ADMIN", roleCatalog.roleName(2));
+        assertEquals(2, roleCatalog.size());
+    }
+
+    @Test
+    void testRefresh_whenDatabaseFails_thenKeepCurrentRoles() {
+        when(rolesRepository.findAll())
+                .thenReturn(List.of(role(1, "USER")))
+                .thenThrow(new IllegalStateException("database unavailable"));
+
+        var roleCatalog = new RoleCatalog(rolesRepository);
+
+        assertDoesNotThrow(roleCatalog::refresh);
+        assertEquals("USER", roleCatalog.roleName(1));
+        assertEquals(1, roleCatalog.size());
+    }
+
+    private static Roles role(int roleId, String roleName) {
+        var role = new Roles();
+        role.setRoleId(roleId);
+        role.setRoleName(roleName);
+        return role;
+    }
+}
@@ -1,11 +1,16 @@
 package com.merufureku.aromatica.auth_service.helper;
 
+import com.merufureku.aromatica.auth_service.config.TokenConfig;
 import com.merufureku.aromatica.auth_service.dao.entity.Token;
 import com.merufureku.aromatica.auth_service.dao.entity.Users;
+import com.merufureku.aromatica.auth_service.dao.projection.IssuedTokenFingerprint;
+import com.merufureku.aromatica.auth_service.dao.projection.TokenFingerprint;
 import com.merufureku.aromatica.auth_service.dao.repository.TokenRepository;
+import com.merufureku.aromatica.auth_service.dto.responses.IntrospectBatchResponse;
 import com.merufureku.aromatica.auth_service.dto.responses.LoginResponse;
 import com.merufureku.aromatica.auth_service.exception.ServiceException;
 import com.merufureku.aromatica.auth_service.utilities.TokenUtility;
+import io.jsonwebtoken.Claims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,10 +19,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.merufureku.aromatica.auth_service.constants.AuthConstants.*;
 import static com.merufureku.aromatica.auth_service.enums.CustomStatusEnums.INVALID_TOKEN;
+import static com.merufureku.aromatica.auth_service.utilities.TokenUtility.fingerprint;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -25,6 +34,8 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class TokenHelperTest {
 
+    private static final String TOKEN_VALUE = "test-token-value";
+
     @InjectMocks
     private TokenHelper tokenHelper;
 
@@ -37,6 +48,12 @@ class TokenHelperTest {
     @Mock
     private AuthServiceHelper authServiceHelper;
 
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private TokenConfig tokenConfig;
+
     private Users user;
     private Token token;
 
@@ -51,7 +68,7 @@ class TokenHelperTest {
 
         token = Token.builder()
                 .userId(1)
-                .token("test-token-value")
+                .tokenHash(fingerprint(TOKEN_VALUE))
                 .type(ACCESS_TOKEN)
                 .jti("test-jti")
                 .createdDt(LocalDateTime.now())
@@ -61,14 +78,13 @@ class TokenHelperTest {
 
     @Test
     void testGenerateToken_thenReturnLoginResponse() {
-        when(authServiceHelper.getUserRole(user)).thenReturn("USER");
         when(tokenUtility.generateToken(anyString(), eq(user.getId()), eq(ACCESS_TOKEN), eq("USER")))
                 .thenReturn("access-token-value");
         when(tokenUtility.generateToken(anyString(), eq(user.getId()), eq(REFRESH_TOKEN), eq("USER")))
                 .thenReturn("refresh-token-value");
-        when(tokenRepository.save(any(Token.class))).thenReturn(token);
+        when(tokenRepository.saveAll(anyList())).thenReturn(List.of(token, token));
 
-        LoginResponse response = tokenHelper.generateToken(user);
+        LoginResponse response = tokenHelper.generateToken(user.getId(), "USER");
 
         assertNotNull(response);
         assertEquals(user.getId(), response.id());
@@ -76,9 +92,10 @@ class TokenHelperTest {
         assertEquals("access-token-value", response.token().accessToken());
         assertEquals("refresh-token-value", response.token().refreshToken());
 
-        verify(authServiceHelper, times(1)).getUserRole(user);
+        verifyNoInteractions(authServiceHelper);
         verify(tokenUtility, times(2)).generateToken(anyString(), eq(user.getId()), anyString(), eq("USER"));
-        verify(tokenRepository, times(2)).save(any(Token.class));
+        verify(tokenRepository, times(1)).saveAll(argThat(tokens -> ((List<?>) tokens).size() == 2));
+        verify(tokenRepository, never()).save(any(Token.class));
     }
 
     @Test
@@ -86,7 +103,7 @@ class TokenHelperTest {
         when(authServiceHelper.getUserRole(user)).thenReturn("USER");
         when(tokenUtility.generateToken(anyString(), eq(user.getId()), eq(ACCESS_TOKEN), eq("USER")))
                 .thenReturn("new-access-token");
-        doNothing().when(tokenRepository).deleteByUserIdAndType(user.getId(), ACCESS_TOKEN);
+        when(tokenRepository.deleteByUserIdAndType(user.getId(), ACCESS_TOKEN)).thenReturn(1);
         when(tokenRepository.save(any(Token.class))).thenReturn(token);
 
         String result = tokenHelper.generateNewAccessToken(user);
@@ -95,6 +112,7 @@ class TokenHelperTest {
         assertEquals("new-access-token", result);
 
         verify(tokenRepository, times(1)).deleteByUserIdAndType(user.getId(), ACCESS_TOKEN);
+        verify(tokenRevocationList, times(1)).revokeUser(user.getId());
         verify(tokenUtility, times(1)).generateToken(anyString(), eq(user.getId()), eq(ACCESS_TOKEN), eq("USER"));
         verify(tokenRepository, times(1)).save(any(Token.class));
     }
@@ -102,45 +120,168 @@ class TokenHelperTest {
     @Test
     void testValidateToken_whenValid_thenPassValidation() {
         token.setExpirationDt(LocalDateTime.now().plusMinutes(10));
-        when(tokenRepository.findByUserIdAndJtiAndType(1, "test-jti", ACCESS_TOKEN))
-                .thenReturn(Optional.of(token));
+        when(tokenRepository.findFingerprint(1, "test-jti", ACCESS_TOKEN))
+                .thenReturn(Optional.of(toFingerprint(token)));
 
-        assertDoesNotThrow(() -> tokenHelper.validateToken(1, "test-jti", token.getToken(), ACCESS_TOKEN));
+        assertDoesNotThrow(() -> tokenHelper.validateToken(1, "test-jti", TOKEN_VALUE, ACCESS_TOKEN));
 
-        verify(tokenRepository, times(1)).findByUserIdAndJtiAndType(1, "test-jti", ACCESS_TOKEN);
+        verify(tokenRepository, times(1)).findFingerprint(1, "test-jti", ACCESS_TOKEN);
     }
 
     @Test
     void testValidateToken_whenTokenNotFound_thenThrowException() {
-        when(tokenRepository.findByUserIdAndJtiAndType(1, "test-jti", ACCESS_TOKEN))
+        when(tokenRepository.findFingerprint(1, "test-jti", ACCESS_TOKEN))
                 .thenReturn(Optional.empty());
 
         ServiceException exception = assertThrows(ServiceException.class,
                 () -> tokenHelper.validateToken(1, "test-jti", "token-value", ACCESS_TOKEN));
 
         assertEquals(INVALID_TOKEN, exception.getCustomStatusEnums());
-        verify(tokenRepository, times(1)).findByUserIdAndJtiAndType(1, "test-jti", ACCESS_TOKEN);
+        verify(tokenRepository, times(1)).findFingerprint(1, "test-jti", ACCESS_TOKEN);
     }
 
     @Test
     void testValidateToken_whenTokenMismatch_thenThrowException() {
-        when(tokenRepository.findByUserIdAndJtiAndType(1, "test-jti", ACCESS_TOKEN))
-                .thenReturn(Optional.of(token));
+        when(tokenRepository.findFingerprint(1, "test-jti", ACCESS_TOKEN))
+                .thenReturn(Optional.of(toFingerprint(token)));
 
         ServiceException exception = assertThrows(ServiceException.class,
                 () -> tokenHelper.validateToken(1, "test-jti", "wrong-token-value", ACCESS_TOKEN));
 
         assertEquals(INVALID_TOKEN, exception.getCustomStatusEnums());
-        verify(tokenRepository, times(1)).findByUserIdAndJtiAndType(1, "test-jti", ACCESS_TOKEN);
+        verify(tokenRepository, times(1)).findFingerprint(1, "test-jti", ACCESS_TOKEN);
+    }
+
+    @Test
+    void testValidateAccessToken_whenStateful_thenValidateAgainstTokenTable() {
+        var claims = mock(Claims.class);
+        token.setExpirationDt(LocalDateTime.now().plusMinutes(10));
+        when(claims.get("userId", Integer.class)).thenReturn(1);
+        when(claims.getId()).thenReturn("test-jti");
+        when(tokenConfig.isStatelessAccessValidation()).thenReturn(false);
+        when(tokenRepository.findFingerprint(1, "test-jti", ACCESS_TOKEN))
+                .thenReturn(Optional.of(toFingerprint(token)));
+
+        assertDoesNotThrow(() -> tokenHelper.validateAccessToken(claims, TOKEN_VALUE));
+
+        verify(tokenRepository, times(1)).findFingerprint(1, "test-jti", ACCESS_TOKEN);
+        verify(tokenRevocationList, never()).isRevoked(anyInt(), any());
+    }
+
+    @Test
+    void testValidateAccessToken_whenStatelessAndNotRevoked_thenSkipTokenTable() {
+        var claims = mock(Claims.class);
+        var issuedAt = new Date();
+        when(claims.get("userId", Integer.class)).thenReturn(1);
+        when(claims.getIssuedAt()).thenReturn(issuedAt);
+        when(tokenConfig.isStatelessAccessValidation()).thenReturn(true);
+        when(tokenRevocationList.isComplete()).thenReturn(true);
+        when(tokenRevocationList.isRevoked(1, issuedAt)).thenReturn(false);
+
+        assertDoesNotThrow(() -> tokenHelper.validateAccessToken(claims, "token-value"));
+
+        verifyNoInteractions(tokenRepository);
+    }
+
+    @Test
+    void testValidateAccessToken_whenStatelessAndListIncomplete_thenValidateAgainstTokenTable() {
+        var claims = mock(Claims.class);
+        when(claims.get("userId", Integer.class)).thenReturn(1);
+        when(claims.getId()).thenReturn("test-jti");
+        when(tokenConfig.isStatelessAccessValidation()).thenReturn(true);
+        when(tokenRevocationList.isComplete()).thenReturn(false);
+        when(tokenRepository.findFingerprint(1, "test-jti", ACCESS_TOKEN)).thenReturn(Optional.empty());
+
+        ServiceException exception = assertThrows(ServiceException.class,
+                () -> tokenHelper.validateAccessToken(claims, TOKEN_VALUE));
+
+        assertEquals(INVALID_TOKEN, exception.getCustomStatusEnums());
+        verify(tokenRevocationList, never()).isRevoked(anyInt(), any());
+    }
+
+    @Test
+    void testValidateAccessToken_whenStatelessAndRevoked_thenThrowException() {
+        var claims = mock(Claims.class);
+        var issuedAt = new Date();
+        when(claims.get("userId", Integer.class)).thenReturn(1);
+        when(claims.getIssuedAt()).thenReturn(issuedAt);
+        when(tokenConfig.isStatelessAccessValidation()).thenReturn(true);
+        when(tokenRevocationList.isComplete()).thenReturn(true);
+        when(tokenRevocationList.isRevoked(1, issuedAt)).thenReturn(true);
+
+        ServiceException exception = assertThrows(ServiceException.class,
+                () -> tokenHelper.validateAccessToken(claims, "token-value"));
+
+        assertEquals(INVALID_TOKEN, exception.getCustomStatusEnums());
+        verifyNoInteractions(tokenRepository);
     }
 
     @Test
     void testInvalidateAllUserToken_thenDeleteAllTokens() {
-        doNothing().when(tokenRepository).deleteByUserId(user.getId());
+        when(tokenRepository.deleteByUserId(user.getId())).thenReturn(2);
 
         tokenHelper.invalidateAllUserToken(user.getId());
 
         verify(tokenRepository, times(1)).deleteByUserId(user.getId());
+        verify(tokenRevocationList, times(1)).revokeUser(user.getId());
     }
-}
 
+    @Test
+    void testIntrospectAccessTokens_whenStateful_thenResolveAllWithOneQuery() {
+        var active = claims("active-jti", 1);
+        when(active.get("role", String.class)).thenReturn("USER");
+        var replaced = claims("replaced-jti", 2);
+        when(tokenUtility.parseToken("active-token", ACCESS_TOKEN)).thenReturn(active);
+        when(tokenUtility.parseToken("forged-token", ACCESS_TOKEN)).thenThrow(new ServiceException(INVALID_TOKEN));
+        when(tokenUtility.parseToken("replaced-token", ACCESS_TOKEN)).thenReturn(replaced);
+        when(tokenConfig.isStatelessAccessValidation()).thenReturn(false);
+        var expiration = LocalDateTime.now().plusMinutes(10);
+        when(tokenRepository.findFingerprintsByJtis(Set.of("active-jti", "replaced-jti"), ACCESS_TOKEN))
+                .thenReturn(List.of(
+                        new IssuedTokenFingerprint("active-jti", 1, fingerprint("active-token"), expiration),
+                        new IssuedTokenFingerprint("replaced-jti", 2, fingerprint("newer-token"), expiration)));
+
+        var results = tokenHelper.introspectAccessTokens(List.of("active-token", "forged-token", "replaced-token"));
+
+        assertEquals(List.of(
+                new IntrospectBatchResponse.Result(true, 1, "USER"),
+                IntrospectBatchResponse.Result.INACTIVE,
+                IntrospectBatchResponse.Result.INACTIVE), results);
+        verify(tokenRepository, times(1)).findFingerprintsByJtis(any(), any());
+        verify(tokenRepository, never()).findFingerprint(anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    void testIntrospectAccessTokens_whenStateless_thenCheckRevocationListOnly() {
+        var active = claims("active-jti", 1);
+        when(active.get("role", String.class)).thenReturn("ADMIN");
+        var revoked = claims("revoked-jti", 2);
+        var issuedAt = new Date();
+        when(active.getIssuedAt()).thenReturn(issuedAt);
+        when(revoked.getIssuedAt()).thenReturn(issuedAt);
+        when(tokenUtility.parseToken("active-token", ACCESS_TOKEN)).thenReturn(active);
+        when(tokenUtility.parseToken("revoked-token", ACCESS_TOKEN)).thenReturn(revoked);
+        when(tokenConfig.isStatelessAccessValidation()).thenReturn(true);
+        when(tokenRevocationList.isComplete()).thenReturn(true);
+        when(tokenRevocationList.isRevoked(1, issuedAt)).thenReturn(false);
+        when(tokenRevocationList.isRevoked(2, issuedAt)).thenReturn(true);
+
+        var results = tokenHelper.introspectAccessTokens(List.of("active-token", "revoked-token"));
+
+        assertEquals(List.of(
+                new IntrospectBatchResponse.Result(true, 1, "ADMIN"),
+                IntrospectBatchResponse.Result.INACTIVE), results);
+        verifyNoInteractions(tokenRepository);
+    }
+
+    private static Claims claims(String jti, Integer userId) {
+        var claims = mock(Claims.class);
+        lenient().when(claims.getId()).thenReturn(jti);
+        when(claims.get("userId", Integer.class)).thenReturn(userId);
+        return claims;
+    }
+
+    private static TokenFingerprint toFingerprint(Token token) {
+        return new TokenFingerprint(token.getTokenHash(), token.getExpirationDt());
+    }
+}
@@ -0,0 +1,98 @@
+package com.merufureku.aromatica.auth_service.helper;
+
+import com.merufureku.aromatica.auth_service.config.TokenConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.ACCESS_TOKEN_EXPIRATION_MINUTES;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationListTest {
+
+    @Mock
+    private TokenConfig tokenConfig;
+
+    private final AtomicLong millis = new AtomicLong(System.currentTimeMillis());
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevocationList tokenRevocationList;
+
+    @BeforeEach
+    void setUp() {
+        when(tokenConfig.getRevocationMaxEntries()).thenReturn(2L);
+        meterRegistry = new SimpleMeterRegistry();
+        tokenRevocationList = new TokenRevocationList(tokenConfig, meterRegistry, millis::get);
+    }
+
+    @Test
+    void testIsRevoked_whenUserNotRevoked_thenReturnFalse() {
+        assertFalse(tokenRevocationList.isRevoked(1, new Date()));
+    }
+
+    @Test
+    void testIsRevoked_whenIssuedBeforeRevocation_thenReturnTrue() {
+        var issuedAt = Date.from(Instant.now().minusSeconds(60));
+
+        tokenRevocationList.revokeUser(1);
+
+        assertTrue(tokenRevocationList.isRevoked(1, issuedAt));
+        assertFalse(tokenRevocationList.isRevoked(2, issuedAt));
+    }
+
+    @Test
+    void testIsRevoked_whenIssuedAfterRevocation_thenReturnFalse() {
+        tokenRevocationList.revokeUser(1);
+
+        assertFalse(tokenRevocationList.isRevoked(1, Date.from(Instant.now().plusSeconds(1))));
+    }
+
+    @Test
+    void testRevokeUser_whenFull_thenKeepEntriesAndReportIncomplete() {
+        var issuedAt = Date.from(Instant.ofEpochMilli(millis.get()).minusSeconds(60));
+        tokenRevocationList.revokeUser(1);
+        tokenRevocationList.revokeUser(2);
+
+        tokenRevocationList.revokeUser(3);
+
+        assertTrue(tokenRevocationList.isRevoked(1, issuedAt));
+        assertTrue(tokenRevocationList.isRevoked(2, issuedAt));
+        assertFalse(tokenRevocationList.isComplete());
+        assertEquals(1, meterRegistry.get("token.revocation.overflow").counter().count());
+    }
+
+    @Test
+    void testRevokeUser_whenFullAndUserAlreadyRevoked_thenStayComplete() {
+        tokenRevocationList.revokeUser(1);
+        tokenRevocationList.revokeUser(2);
+
+        tokenRevocationList.revokeUser(1);
+
+        assertTrue(tokenRevocationList.isComplete());
+        assertEquals(0, meterRegistry.get("token.revocation.overflow").counter().count());
+    }
+
+    @Test
+    void testIsComplete_whenOverflowOutlived_thenReturnTrueAndAcceptNewEntries() {
+        tokenRevocationList.revokeUser(1);
+        tokenRevocationList.revokeUser(2);
+        tokenRevocationList.revokeUser(3);
+
+        millis.addAndGet(Duration.ofMinutes(ACCESS_TOKEN_EXPIRATION_MINUTES).toMillis());
+
+        assertTrue(tokenRevocationList.isComplete());
+        tokenRevocationList.revokeUser(3);
+        assertTrue(tokenRevocationList.isRevoked(3, Date.from(Instant.ofEpochMilli(millis.get()).minusSeconds(60))));
+        assertTrue(tokenRevocationList.isComplete());
+    }
+}
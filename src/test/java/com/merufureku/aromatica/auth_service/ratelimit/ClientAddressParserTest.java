@@ -0,0 +1,85 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientAddressParserTest {
+
+    @Test
+    void testParse_whenIpv4_thenStoreIpv4Mapped() {
+        var key = parse("203.0.113.7");
+
+        assertEquals(0L, key.hi());
+        assertEquals(0x0000_FFFF_CB00_7107L, key.lo());
+        assertEquals(RateLimitKey.SCOPE_IP, key.scope());
+        assertEquals("ip:203.0.113.7:3", key.toString());
+    }
+
+    @Test
+    void testParse_whenIpv4MappedIpv6_thenSameKeyAsIpv4() {
+        assertEquals(parse("203.0.113.7"), parse("::ffff:203.0.113.7"));
+        assertEquals(parse("203.0.113.7"), parse("::FFFF:cb00:7107"));
+    }
+
+    @Test
+    void testParse_whenIpv6Forms_thenSameKey() {
+        var full = parse("2001:0db8:0000:0000:0000:0000:0000:0001");
+
+        assertEquals(0x2001_0db8_0000_0000L, full.hi());
+        assertEquals(1L, full.lo());
+        assertEquals(full, parse("2001:db8::1"));
+        assertEquals(full, parse("[2001:db8::1]:443"));
+        assertEquals(full, parse("2001:db8::1%eth0"));
+    }
+
+    @Test
+    void testParse_whenCompressionInMiddle_thenPlaceGroupsCorrectly() {
+        var key = parse("fe80::1:2");
+
+        assertEquals(0xfe80_0000_0000_0000L, key.hi());
+        assertEquals(0x0000_0000_0001_0002L, key.lo());
+        assertEquals(0L, parse("::").lo());
+        assertEquals(1L, parse("::1").lo());
+    }
+
+    @Test
+    void testParse_whenIpv4WithPortOrSpaces_thenIgnoreThem() {
+        assertEquals(parse("10.0.0.1"), parse("10.0.0.1:8080"));
+        assertEquals(parse("10.0.0.1"), parse("  10.0.0.1 "));
+    }
+
+    @Test
+    void testParse_whenNotAnAddress_thenHashUnderMarker() {
+        var unknown = parse("unknown");
+
+        assertEquals(ClientAddressParser.UNPARSED, unknown.hi());
+        assertEquals(unknown, parse("unknown"));
+        assertNotEquals(unknown, parse("unknown2"));
+        assertEquals(ClientAddressParser.UNPARSED, parse("256.1.1.1").hi());
+        assertEquals(ClientAddressParser.UNPARSED, parse("1.2.3").hi());
+        assertEquals(ClientAddressParser.UNPARSED, parse("1:2:3:4:5:6:7:8:9").hi());
+        assertEquals(ClientAddressParser.UNPARSED, parse("1::2::3").hi());
+        assertEquals(ClientAddressParser.UNPARSED, parse("12345::1").hi());
+    }
+
+    @Test
+    void testFromHeaders_whenForwardedForHasChain_thenUseFirstEntry() {
+        var key = ClientAddressParser.fromHeaders("198.51.100.2, 10.0.0.1", "10.0.0.9", "127.0.0.1",
+                3, new RateLimitKey());
+
+        assertEquals(parse("198.51.100.2"), key);
+    }
+
+    @Test
+    void testFromHeaders_whenNoForwardedFor_thenFallBackInOrder() {
+        assertEquals(parse("10.0.0.9"),
+                ClientAddressParser.fromHeaders(null, "10.0.0.9", "127.0.0.1", 3, new RateLimitKey()));
+        assertEquals(parse("127.0.0.1"),
+                ClientAddressParser.fromHeaders("", null, "127.0.0.1", 3, new RateLimitKey()));
+    }
+
+    private static RateLimitKey parse(String address) {
+        return ClientAddressParser.parse(address, 0, address.length(), 3, new RateLimitKey());
+    }
+}
@@ -0,0 +1,194 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+import com.merufureku.aromatica.auth_service.admission.RequestPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against H2 in PostgreSQL mode as a stand-in for the shared database. Two backend
+ * instances play two replicas.
+ */
+class JdbcRateLimitBackendTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    private final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+    private final List<RequestPriority> connectionPriorities = new CopyOnWriteArrayList<>();
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcRateLimitBackend nodeA;
+    private JdbcRateLimitBackend nodeB;
+
+    @BeforeEach
+    void setUp() {
+        // Records the tier each connection is asked for in, as the admission gate would see it
+        jdbcTemplate = new JdbcTemplate(new DelegatingDataSource(new DriverManagerDataSource(
+                "jdbc:h2:mem:ratelimit;MODE=PostgreSQL;DB_CLOSE_DELAY=-1")) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                connectionPriorities.add(RequestPriority.current());
+                return super.getConnection();
+            }
+        });
+        jdbcTemplate.execute("""
+                CREATE TABLE rate_limit_bucket (
+                    bucket_key bytea PRIMARY KEY,
+                    state bytea NOT NULL,
+                    version bigint NOT NULL,
+                    expires_at timestamp NOT NULL
+                )""");
+
+        nodeA = new JdbcRateLimitBackend(jdbcTemplate, bucketStore(), 20, 1000, 1000, clock::get);
+        nodeB = new JdbcRateLimitBackend(jdbcTemplate, bucketStore(), 20, 1000, 1000, clock::get);
+        connectionPriorities.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS rate_limit_bucket");
+    }
+
+    @Test
+    void testTryConsume_whenRequestsSpreadOverReplicas_thenEnforceOneClusterLimit() {
+        var spec = BucketSpec.of(5, WINDOW);
+
+        var allowed = 0;
+        for (int i = 0; i < 10; i++) {
+            var node = i % 2 == 0 ? nodeA : nodeB;
+            if (node.tryConsume(key(1), policy(spec))) {
+                allowed++;
+            }
+        }
+
+        assertEquals(5, allowed);
+    }
+
+    @Test
+    void testTryConsume_whenWindowPasses_thenRefill() {
+        var spec = BucketSpec.of(2, WINDOW);
+        assertTrue(nodeA.tryConsume(key(1), policy(spec)));
+        assertTrue(nodeB.tryConsume(key(1), policy(spec)));
+        assertFalse(nodeA.tryConsume(key(1), policy(spec)));
+
+        clock.addAndGet(WINDOW.toMillis());
+
+        assertTrue(nodeA.tryConsume(key(1), policy(spec)));
+    }
+
+    @Test
+    void testTryConsume_whenKeysDiffer_thenSeparateBuckets() {
+        var spec = BucketSpec.of(1, WINDOW);
+
+        assertTrue(nodeA.tryConsume(key(1), policy(spec)));
+        assertTrue(nodeA.tryConsume(key(2), policy(spec)));
+        assertFalse(nodeB.tryConsume(key(1), policy(spec)));
+    }
+
+    @Test
+    void testTryConsume_whenReplicasNumberedPoliciesDifferently_thenShareBucket() {
+        var spec = BucketSpec.of(1, WINDOW);
+
+        assertTrue(nodeA.tryConsume(new RateLimitKey().set(0, RateLimitKey.SCOPE_IP, 0L, 1L), policy(0, spec)));
+        assertFalse(nodeB.tryConsume(new RateLimitKey().set(3, RateLimitKey.SCOPE_IP, 0L, 1L), policy(3, spec)));
+    }
+
+    @Test
+    void testTryConsume_whenCapacityIsLarge_thenServeLeaseLocally() {
+        var spec = BucketSpec.of(1000, WINDOW);
+        assertEquals(20, nodeA.leaseSize(spec));
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(nodeA.tryConsume(key(1), policy(spec)));
+        }
+        assertEquals(0L, version(key(1)));
+
+        assertTrue(nodeA.tryConsume(key(1), policy(spec)));
+        assertEquals(1L, version(key(1)));
+    }
+
+    @Test
+    void testTryConsume_whenAnyLimitIsEmpty_thenReject() {
+        var spec = new BucketSpec(List.of(
+                new BucketSpec.Limit(2, Duration.ofSeconds(1)),
+                new BucketSpec.Limit(3, WINDOW)));
+
+        assertTrue(nodeA.tryConsume(key(1), policy(spec)));
+        assertTrue(nodeA.tryConsume(key(1), policy(spec)));
+        assertFalse(nodeA.tryConsume(key(1), policy(spec)));
+
+        clock.addAndGet(1000);
+        assertTrue(nodeB.tryConsume(key(1), policy(spec)));
+        assertFalse(nodeB.tryConsume(key(1), policy(spec)));
+    }
+
+    @Test
+    void testPurgeExpired_whenBucketIdle_thenDeleteRow() {
+        nodeA.tryConsume(key(1), policy(BucketSpec.of(5, WINDOW)));
+
+        clock.addAndGet(WINDOW.toMillis() + 1);
+        nodeA.purgeExpired();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_limit_bucket", Integer.class));
+    }
+
+    @Test
+    void testTryConsume_whenDatabaseFails_thenEnforceLimitPerNode() {
+        jdbcTemplate.execute("DROP TABLE rate_limit_bucket");
+        var spec = BucketSpec.of(1, WINDOW);
+
+        assertTrue(nodeA.tryConsume(key(1), policy(spec)));
+        assertFalse(nodeA.tryConsume(key(1), policy(spec)));
+        assertTrue(nodeB.tryConsume(key(1), policy(spec)));
+    }
+
+    @Test
+    void testTryConsume_whenQueryingBucket_thenRunAsCritical() {
+        RequestPriority.setCurrent(RequestPriority.BULK);
+        try {
+            assertTrue(nodeA.tryConsume(key(1), policy(BucketSpec.of(5, WINDOW))));
+
+            assertFalse(connectionPriorities.isEmpty());
+            assertTrue(connectionPriorities.stream().allMatch(priority -> priority == RequestPriority.CRITICAL));
+            assertEquals(RequestPriority.BULK, RequestPriority.current());
+        } finally {
+            RequestPriority.clearCurrent();
+        }
+    }
+
+    private static RateLimitBucketStore bucketStore() {
+        return new RateLimitBucketStore(new SimpleMeterRegistry(), 1000);
+    }
+
+    private long version(RateLimitKey key) {
+        return jdbcTemplate.queryForObject("SELECT version FROM rate_limit_bucket WHERE bucket_key = ?",
+                Long.class, (Object) JdbcRateLimitBackend.encodeKey(RateLimitPolicy.sharedId("/login"), key));
+    }
+
+    private static RateLimitPolicy policy(BucketSpec spec) {
+        return policy(0, spec);
+    }
+
+    private static RateLimitPolicy policy(int ordinal, BucketSpec spec) {
+        var definition = new RateLimitPolicyDefinition("/login", RateLimitScope.IP,
+                List.of(new RateLimitPolicyDefinition.LimitDefinition(1, WINDOW)));
+        return new RateLimitPolicy(ordinal, definition, spec);
+    }
+
+    private static RateLimitKey key(long address) {
+        return new RateLimitKey().set(0, RateLimitKey.SCOPE_IP, 0L, address);
+    }
+}
@@ -0,0 +1,57 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathPolicyMatcherTest {
+
+    private final RateLimitPolicy login = policy(0, "/login");
+    private final RateLimitPolicy auth = policy(1, "/auth/**");
+    private final RateLimitPolicy changePassword = policy(2, "/auth/me/change-password");
+    private final RateLimitPolicy authMe = policy(3, "/auth/me/**");
+
+    private final PathPolicyMatcher matcher = PathPolicyMatcher.compile(List.of(login, auth, changePassword, authMe));
+
+    @Test
+    void testMatch_whenExactPath_thenReturnPolicy() {
+        assertSame(login, matcher.match("/login"));
+        assertSame(changePassword, matcher.match("/auth/me/change-password"));
+    }
+
+    @Test
+    void testMatch_whenUnderPrefix_thenReturnLongestPrefix() {
+        assertSame(auth, matcher.match("/auth"));
+        assertSame(auth, matcher.match("/auth/logout"));
+        assertSame(authMe, matcher.match("/auth/me"));
+        assertSame(authMe, matcher.match("/auth/me/photo"));
+    }
+
+    @Test
+    void testMatch_whenOnlySharesCharacters_thenNoMatch() {
+        assertNull(matcher.match("/login/extra"));
+        assertNull(matcher.match("/logi"));
+        assertNull(matcher.match("/authors"));
+        assertNull(matcher.match("/register"));
+        assertNull(matcher.match(""));
+    }
+
+    @Test
+    void testMatch_whenCatchAll_thenCoverEverything() {
+        var all = policy(0, "/**");
+        var catchAll = PathPolicyMatcher.compile(List.of(all, login));
+
+        assertSame(login, catchAll.match("/login"));
+        assertSame(all, catchAll.match("/register"));
+        assertSame(all, catchAll.match("/"));
+    }
+
+    private static RateLimitPolicy policy(int ordinal, String path) {
+        var definition = new RateLimitPolicyDefinition(path, RateLimitScope.IP,
+                List.of(new RateLimitPolicyDefinition.LimitDefinition(5, Duration.ofMinutes(1))));
+        return new RateLimitPolicy(ordinal, definition, definition.toSpec());
+    }
+}
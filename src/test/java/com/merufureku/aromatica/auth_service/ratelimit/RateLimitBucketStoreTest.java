@@ -0,0 +1,112 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitBucketStoreTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+    private static final BucketSpec SPEC = BucketSpec.of(5, WINDOW);
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitBucketStore bucketStore;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bucketStore = new RateLimitBucketStore(meterRegistry, 3, nanos::get);
+    }
+
+    @Test
+    void testResolve_whenKeyIsKnown_thenReturnSameBucket() {
+        var first = bucketStore.resolve(key(1), SPEC);
+        var second = bucketStore.resolve(key(1), SPEC);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void testResolve_whenIdleLongerThanRefillWindow_thenEvict() {
+        var first = bucketStore.resolve(key(1), SPEC);
+
+        nanos.addAndGet(WINDOW.toNanos() + TimeUnit.SECONDS.toNanos(1));
+
+        var second = bucketStore.resolve(key(1), SPEC);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void testResolve_whenAccessedWithinRefillWindow_thenKeep() {
+        var first = bucketStore.resolve(key(1), SPEC);
+
+        nanos.addAndGet(WINDOW.toNanos() / 2);
+        bucketStore.resolve(key(1), SPEC);
+        nanos.addAndGet(WINDOW.toNanos() / 2 + 1);
+
+        assertSame(first, bucketStore.resolve(key(1), SPEC));
+    }
+
+    @Test
+    void testResolve_whenKeysExceedCap_thenEvictAndRecord() {
+        for (int i = 0; i < 50; i++) {
+            bucketStore.resolve(key(i), SPEC);
+        }
+
+        assertTrue(bucketStore.size() <= 3);
+        assertTrue(meterRegistry.get("cache.evictions")
+                .tag("cache", RateLimitBucketStore.CACHE_NAME)
+                .functionCounter().count() > 0);
+    }
+
+    @Test
+    void testResolve_whenProbeIsReused_thenStoreIndependentCopy() {
+        var probe = key(1);
+        var first = bucketStore.resolve(probe, SPEC);
+
+        probe.set(0, RateLimitKey.SCOPE_IP, 0L, 2L);
+        var other = bucketStore.resolve(probe, SPEC);
+
+        assertNotSame(first, other);
+        assertSame(first, bucketStore.resolve(key(1), SPEC));
+    }
+
+    @Test
+    void testResolve_whenPolicyReloaded_thenKeepBucketAndApplyNewLimit() {
+        var bucket = bucketStore.resolve(key(1), SPEC);
+        assertTrue(bucket.tryConsume(4));
+
+        var raised = BucketSpec.of(10, WINDOW);
+        var reconfigured = bucketStore.resolve(key(1), raised);
+
+        assertSame(bucket, reconfigured);
+        assertEquals(6, reconfigured.getAvailableTokens());
+    }
+
+    @Test
+    void testResolve_whenLimitCountChanges_thenStartNewBucket() {
+        var bucket = bucketStore.resolve(key(1), SPEC);
+        bucket.tryConsume(5);
+
+        var burstAndSustained = new BucketSpec(List.of(
+                new BucketSpec.Limit(5, Duration.ofSeconds(1)),
+                new BucketSpec.Limit(100, Duration.ofHours(1))));
+        var replaced = bucketStore.resolve(key(1), burstAndSustained);
+
+        assertNotSame(bucket, replaced);
+        assertEquals(5, replaced.getAvailableTokens());
+    }
+
+    private static RateLimitKey key(long address) {
+        return new RateLimitKey().set(0, RateLimitKey.SCOPE_IP, 0L, address);
+    }
+}
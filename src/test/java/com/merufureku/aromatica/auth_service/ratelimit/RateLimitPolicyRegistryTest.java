@@ -0,0 +1,159 @@
+package com.merufureku.aromatica.auth_service.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class RateLimitPolicyRegistryTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testMatch_whenPoliciesConfigured_thenBindAllLimits() {
+        var environment = new MockEnvironment()
+                .withProperty("rate-limit.policies[0].path", "/login")
+                .withProperty("rate-limit.policies[0].limits[0].capacity", "5")
+                .withProperty("rate-limit.policies[0].limits[0].period", "1s")
+                .withProperty("rate-limit.policies[0].limits[1].capacity", "100")
+                .withProperty("rate-limit.policies[0].limits[1].period", "1h")
+                .withProperty("rate-limit.policies[1].path", "/auth/me/**")
+                .withProperty("rate-limit.policies[1].scope", "USER")
+                .withProperty("rate-limit.policies[1].limits[0].capacity", "3")
+                .withProperty("rate-limit.policies[1].limits[0].period", "5m");
+
+        var registry = new RateLimitPolicyRegistry(environment, mock(JdbcTemplate.class), "", false);
+
+        var login = registry.match("/login");
+        assertEquals(RateLimitScope.IP, login.scope());
+        assertEquals(List.of(new BucketSpec.Limit(5, Duration.ofSeconds(1)), new BucketSpec.Limit(100, Duration.ofHours(1))),
+                login.spec().limits());
+        assertEquals(RateLimitScope.USER, registry.match("/auth/me/change-password").scope());
+        assertNull(registry.match("/register"));
+    }
+
+    @Test
+    void testReload_whenNothingChanged_thenKeepPolicies() {
+        var environment = new MockEnvironment()
+                .withProperty("rate-limit.policies[0].path", "/login")
+                .withProperty("rate-limit.policies[0].limits[0].capacity", "5")
+                .withProperty("rate-limit.policies[0].limits[0].period", "1m");
+        var registry = new RateLimitPolicyRegistry(environment, mock(JdbcTemplate.class), "", false);
+        var before = registry.match("/login");
+
+        assertFalse(registry.reload());
+        assertSame(before, registry.match("/login"));
+    }
+
+    @Test
+    void testReload_whenFileChanged_thenSwapPoliciesAndKeepOrdinals() throws IOException {
+        var file = tempDir.resolve("rate-limits.properties");
+        writePolicies(file, 5, 3);
+        var registry = new RateLimitPolicyRegistry(new MockEnvironment(), mock(JdbcTemplate.class),
+                file.toUri().toString(), false);
+        var login = registry.match("/login");
+        var register = registry.match("/register");
+
+        writePolicies(file, 50, 3);
+
+        assertTrue(registry.reload());
+        var reloadedLogin = registry.match("/login");
+        assertEquals(50, reloadedLogin.spec().limits().get(0).capacity());
+        assertEquals(login.ordinal(), reloadedLogin.ordinal());
+        assertSame(register, registry.match("/register"));
+    }
+
+    @Test
+    void testMatch_whenNodesLoadedPoliciesInDifferentOrder_thenSameSharedKey() {
+        var nodeA = new RateLimitPolicyRegistry(new MockEnvironment()
+                .withProperty("rate-limit.policies[0].path", "/login")
+                .withProperty("rate-limit.policies[0].limits[0].capacity", "5")
+                .withProperty("rate-limit.policies[0].limits[0].period", "1m")
+                .withProperty("rate-limit.policies[1].path", "/register")
+                .withProperty("rate-limit.policies[1].limits[0].capacity", "3")
+                .withProperty("rate-limit.policies[1].limits[0].period", "5m"),
+                mock(JdbcTemplate.class), "", false);
+        var nodeB = new RateLimitPolicyRegistry(new MockEnvironment()
+                .withProperty("rate-limit.policies[0].path", "/register")
+                .withProperty("rate-limit.policies[0].limits[0].capacity", "3")
+                .withProperty("rate-limit.policies[0].limits[0].period", "5m")
+                .withProperty("rate-limit.policies[1].path", "/login")
+                .withProperty("rate-limit.policies[1].limits[0].capacity", "5")
+                .withProperty("rate-limit.policies[1].limits[0].period", "1m"),
+                mock(JdbcTemplate.class), "", false);
+
+        var loginA = nodeA.match("/login");
+        var loginB = nodeB.match("/login");
+        assertNotEquals(loginA.ordinal(), loginB.ordinal());
+
+        var subject = new RateLimitKey();
+        assertArrayEquals(
+                JdbcRateLimitBackend.encodeKey(loginA.sharedId(), subject.set(loginA.ordinal(), RateLimitKey.SCOPE_IP, 0L, 1L)),
+                JdbcRateLimitBackend.encodeKey(loginB.sharedId(), subject.set(loginB.ordinal(), RateLimitKey.SCOPE_IP, 0L, 1L)));
+        assertNotEquals(loginA.sharedId(), nodeA.match("/register").sharedId());
+    }
+
+    @Test
+    void testRefresh_whenFileBroken_thenKeepLastGoodPolicies() throws IOException {
+        var file = tempDir.resolve("rate-limits.properties");
+        writePolicies(file, 5, 3);
+        var registry = new RateLimitPolicyRegistry(new MockEnvironment(), mock(JdbcTemplate.class),
+                file.toUri().toString(), false);
+
+        Files.writeString(file, "rate-limit.policies[0].path=login\n");
+        registry.refresh();
+
+        assertEquals(5, registry.match("/login").spec().limits().get(0).capacity());
+    }
+
+    @Test
+    void testReload_whenTableEnabled_thenRowsOverrideByPath() {
+        var jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:ratelimitpolicy;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("""
+                CREATE TABLE rate_limit_policy (
+                    id serial PRIMARY KEY,
+                    path varchar(255) NOT NULL,
+                    scope varchar(16) NOT NULL,
+                    capacity bigint NOT NULL,
+                    period_seconds bigint NOT NULL
+                )""");
+        try {
+            jdbcTemplate.update("INSERT INTO rate_limit_policy (path, scope, capacity, period_seconds) VALUES ('/login', 'ip', 2, 1)");
+            jdbcTemplate.update("INSERT INTO rate_limit_policy (path, scope, capacity, period_seconds) VALUES ('/login', 'ip', 20, 3600)");
+            var environment = new MockEnvironment()
+                    .withProperty("rate-limit.policies[0].path", "/login")
+                    .withProperty("rate-limit.policies[0].limits[0].capacity", "5")
+                    .withProperty("rate-limit.policies[0].limits[0].period", "1m");
+
+            var registry = new RateLimitPolicyRegistry(environment, jdbcTemplate, "", true);
+
+            assertEquals(List.of(new BucketSpec.Limit(2, Duration.ofSeconds(1)), new BucketSpec.Limit(20, Duration.ofHours(1))),
+                    registry.match("/login").spec().limits());
+        } finally {
+            jdbcTemplate.execute("DROP TABLE rate_limit_policy");
+        }
+    }
+
+    private static void writePolicies(Path file, int loginCapacity, int registerCapacity) throws IOException {
+        Files.writeString(file, """
+                rate-limit.policies[0].path=/login
+                rate-limit.policies[0].limits[0].capacity=%d
+                rate-limit.policies[0].limits[0].period=1m
+                rate-limit.policies[1].path=/register
+                rate-limit.policies[1].limits[0].capacity=%d
+                rate-limit.policies[1].limits[0].period=5m
+                """.formatted(loginCapacity, registerCapacity));
+    }
+}
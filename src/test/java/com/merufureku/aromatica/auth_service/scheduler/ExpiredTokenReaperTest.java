@@ -0,0 +1,64 @@
+package com.merufureku.aromatica.auth_service.scheduler;
+
+import com.merufureku.aromatica.auth_service.dao.repository.TokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiredTokenReaperTest {
+
+    @Mock
+    private TokenRepository tokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testReap_whenLastBatchIsPartial_thenStop() {
+        var reaper = new ExpiredTokenReaper(tokenRepository, meterRegistry, 100, 0, 1000);
+        when(tokenRepository.deleteExpiredBatch(any(LocalDateTime.class), eq(100)))
+                .thenReturn(100, 100, 42);
+
+        reaper.reap();
+
+        verify(tokenRepository, times(3)).deleteExpiredBatch(any(LocalDateTime.class), eq(100));
+        assertEquals(242, meterRegistry.get("token.reaper.rows").counter().count());
+        assertEquals(1, meterRegistry.get("token.reaper.duration").timer().count());
+    }
+
+    @Test
+    void testReap_whenBacklogExceedsCap_thenStopAtCap() {
+        var reaper = new ExpiredTokenReaper(tokenRepository, meterRegistry, 100, 0, 250);
+        when(tokenRepository.deleteExpiredBatch(any(LocalDateTime.class), eq(100))).thenReturn(100);
+        when(tokenRepository.deleteExpiredBatch(any(LocalDateTime.class), eq(50))).thenReturn(50);
+
+        var reaped = reaper.reapExpiredTokens();
+
+        assertEquals(250, reaped);
+        verify(tokenRepository, times(2)).deleteExpiredBatch(any(LocalDateTime.class), eq(100));
+        verify(tokenRepository, times(1)).deleteExpiredBatch(any(LocalDateTime.class), eq(50));
+    }
+
+    @Test
+    void testReap_whenNothingExpired_thenIssueSingleDelete() {
+        var reaper = new ExpiredTokenReaper(tokenRepository, meterRegistry, 100, 0, 1000);
+        when(tokenRepository.deleteExpiredBatch(any(LocalDateTime.class), anyInt())).thenReturn(0);
+
+        assertEquals(0, reaper.reapExpiredTokens());
+        verify(tokenRepository, times(1)).deleteExpiredBatch(any(LocalDateTime.class), anyInt());
+    }
+}
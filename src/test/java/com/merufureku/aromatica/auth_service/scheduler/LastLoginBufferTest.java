@@ -0,0 +1,145 @@
+package com.merufureku.aromatica.auth_service.scheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LastLoginBufferTest {
+
+    private static final LocalDateTime LOGIN_AT = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LastLoginBuffer lastLoginBuffer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lastLoginBuffer = new LastLoginBuffer(jdbcTemplate, new TransactionTemplate(transactionManager), meterRegistry, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testRecord_whenInTransaction_thenBufferAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        lastLoginBuffer.record(1, LOGIN_AT);
+
+        assertEquals(0, meterRegistry.get("last.login.buffer.size").gauge().value());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(1, meterRegistry.get("last.login.buffer.size").gauge().value());
+    }
+
+    @Test
+    void testRecord_whenTransactionRolledBack_thenNothingBuffered() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        lastLoginBuffer.record(1, LOGIN_AT);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(0, lastLoginBuffer.flush());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_whenUserLoggedInTwice_thenWriteLatestOnce() {
+        lastLoginBuffer.record(1, LOGIN_AT.plusMinutes(5));
+        lastLoginBuffer.record(1, LOGIN_AT);
+        lastLoginBuffer.record(2, LOGIN_AT);
+
+        assertEquals(2, meterRegistry.get("last.login.buffer.size").gauge().value());
+        assertEquals(2, lastLoginBuffer.flush());
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(contains("UPDATE users SET last_login"), rows.capture());
+        var user1 = rows.getValue().stream().filter(row -> row[1].equals(1)).findFirst().orElseThrow();
+        assertEquals(Timestamp.valueOf(LOGIN_AT.plusMinutes(5)), user1[0]);
+
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(0, meterRegistry.get("last.login.buffer.size").gauge().value());
+        assertEquals(2, meterRegistry.get("last.login.flushed").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_whenMoreThanBatchSize_thenSplitInOneTransaction() {
+        lastLoginBuffer.record(1, LOGIN_AT);
+        lastLoginBuffer.record(2, LOGIN_AT);
+        lastLoginBuffer.record(3, LOGIN_AT);
+
+        assertEquals(3, lastLoginBuffer.flush());
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void testFlush_whenEmpty_thenNoQuery() {
+        assertEquals(0, lastLoginBuffer.flush());
+
+        verifyNoInteractions(jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void testScheduledFlush_whenUpdateFails_thenKeepEntriesForNextRun() {
+        lastLoginBuffer.record(1, LOGIN_AT);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[]{1});
+
+        lastLoginBuffer.scheduledFlush();
+
+        assertEquals(1, meterRegistry.get("last.login.buffer.size").gauge().value());
+        assertEquals(0, meterRegistry.get("last.login.flushed").counter().count());
+
+        lastLoginBuffer.scheduledFlush();
+
+        assertEquals(0, meterRegistry.get("last.login.buffer.size").gauge().value());
+        assertEquals(1, meterRegistry.get("last.login.flushed").counter().count());
+    }
+
+    @Test
+    void testDrain_thenFlushEverything() {
+        lastLoginBuffer.record(1, LOGIN_AT);
+
+        lastLoginBuffer.drain();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        assertEquals(0, meterRegistry.get("last.login.buffer.size").gauge().value());
+    }
+}
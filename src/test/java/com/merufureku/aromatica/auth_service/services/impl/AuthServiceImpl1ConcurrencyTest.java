@@ -0,0 +1,206 @@
+package com.merufureku.aromatica.auth_service.services.impl;
+
+import com.merufureku.aromatica.auth_service.cache.ProfileCache;
+import com.merufureku.aromatica.auth_service.cache.ProfileInvalidationBroadcast;
+import com.merufureku.aromatica.auth_service.config.TokenConfig;
+import com.merufureku.aromatica.auth_service.dao.entity.Roles;
+import com.merufureku.aromatica.auth_service.dao.entity.UserDetails;
+import com.merufureku.aromatica.auth_service.dao.entity.UserRoles;
+import com.merufureku.aromatica.auth_service.dao.entity.UserRolesPK;
+import com.merufureku.aromatica.auth_service.dao.entity.Users;
+import com.merufureku.aromatica.auth_service.dao.repository.RolesRepository;
+import com.merufureku.aromatica.auth_service.dao.repository.TokenRepository;
+import com.merufureku.aromatica.auth_service.dao.repository.UsersRepository;
+import com.merufureku.aromatica.auth_service.dto.params.BaseParam;
+import com.merufureku.aromatica.auth_service.dto.params.LoginParam;
+import com.merufureku.aromatica.auth_service.helper.AuthServiceHelper;
+import com.merufureku.aromatica.auth_service.helper.RoleCatalog;
+import com.merufureku.aromatica.auth_service.helper.TokenHelper;
+import com.merufureku.aromatica.auth_service.helper.TokenRevocationList;
+import com.merufureku.aromatica.auth_service.scheduler.LastLoginBuffer;
+import com.merufureku.aromatica.auth_service.utilities.TokenUtility;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Login burst against a real two-connection Hikari pool on H2, with a production-cost BCrypt
+ * encoder. While every login is hashing, {@code /auth/me} must still get a connection right away.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:login-burst;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.minimum-idle=2",
+        "spring.datasource.hikari.connection-timeout=250",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuthServiceImpl1ConcurrencyTest {
+
+    private static final int POOL_SIZE = 2;
+    private static final int CONCURRENT_LOGINS = 8;
+    private static final int BCRYPT_STRENGTH = 12;
+    private static final int MY_DETAILS_CALLS = 10;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private RolesRepository rolesRepository;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(BCRYPT_STRENGTH);
+    private final CountDownLatch hashing = new CountDownLatch(CONCURRENT_LOGINS);
+
+    private AuthServiceImpl1 authService;
+    private Integer readerId;
+    private long hashMillis;
+
+    @BeforeEach
+    void setUp() {
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+
+        var start = System.nanoTime();
+        var encodedPassword = bcrypt.encode("password123");
+        hashMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        readerId = transactionTemplate.execute(status -> {
+            var role = new Roles();
+            role.setRoleId(1);
+            role.setRoleName("USER");
+            entityManager.persist(role);
+
+            Integer firstId = null;
+            for (int i = 0; i < CONCURRENT_LOGINS; i++) {
+                var user = persistUser("burstuser" + i, encodedPassword, role);
+                firstId = firstId == null ? user.getId() : firstId;
+            }
+            return firstId;
+        });
+
+        // Counts the logins that reached the hash, the hash itself is the real one
+        var passwordEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return bcrypt.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                hashing.countDown();
+                return bcrypt.matches(rawPassword, encodedPassword);
+            }
+        };
+
+        var tokenUtility = mock(TokenUtility.class);
+        when(tokenUtility.generateToken(anyString(), anyInt(), anyString(), anyString()))
+                .thenAnswer(invocation -> "token-" + invocation.getArgument(0));
+
+        var authServiceHelper = new AuthServiceHelper(usersRepository, new RoleCatalog(rolesRepository), passwordEncoder,
+                mock(LastLoginBuffer.class));
+        var tokenHelper = new TokenHelper(tokenUtility, tokenRepository, authServiceHelper,
+                mock(TokenRevocationList.class), mock(TokenConfig.class));
+        // A zero TTL makes every /auth/me call hit the database
+        var profileCache = new ProfileCache(mock(ProfileInvalidationBroadcast.class), new SimpleMeterRegistry(), 1, 0);
+
+        authService = new AuthServiceImpl1(authServiceHelper, tokenHelper, usersRepository, passwordEncoder,
+                tokenUtility, transactionTemplate, profileCache);
+    }
+
+    @Test
+    void testMyDetails_whenLoginBurstIsHashing_thenGetConnectionRightAway() throws Exception {
+        var pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        var baseParam = new BaseParam(1, "concurrency-test");
+        var executor = Executors.newFixedThreadPool(CONCURRENT_LOGINS);
+        try {
+            var logins = new ArrayList<Future<?>>();
+            for (int i = 0; i < CONCURRENT_LOGINS; i++) {
+                var username = "burstuser" + i;
+                logins.add(executor.submit(() -> authService.login(new LoginParam(username, "password123"), baseParam)));
+            }
+
+            assertTrue(hashing.await(10, TimeUnit.SECONDS));
+
+            // With the pool held across the hash, this would wait out the hash or time out at 250 ms
+            var worstMillis = 0L;
+            for (int i = 0; i < MY_DETAILS_CALLS; i++) {
+                var start = System.nanoTime();
+                var response = authService.myDetails(readerId, baseParam);
+                worstMillis = Math.max(worstMillis, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                assertEquals(readerId, response.data().id());
+            }
+
+            for (var login : logins) {
+                login.get(30, TimeUnit.SECONDS);
+            }
+
+            assertTrue(worstMillis < hashMillis,
+                    "Worst /auth/me latency was " + worstMillis + " ms, one hash takes " + hashMillis + " ms");
+            assertTrue(pool.getTotalConnections() <= POOL_SIZE);
+            assertEquals(2L * CONCURRENT_LOGINS, tokenRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Users persistUser(String username, String encodedPassword, Roles role) {
+        var user = entityManager.persist(Users.builder()
+                .username(username)
+                .password(encodedPassword)
+                .createdAt(LocalDateTime.now())
+                .build());
+        entityManager.persist(UserRoles.builder()
+                .id(new UserRolesPK(user.getId(), role.getRoleId()))
+                .user(user)
+                .build());
+        entityManager.persist(UserDetails.builder()
+                .user(user)
+                .firstName("Mark")
+                .lastName("Mercado")
+                .email(username + "@example.com")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+        return user;
+    }
+}
@@ -1,9 +1,11 @@
 package com.merufureku.aromatica.auth_service.services.impl;
 
+import com.merufureku.aromatica.auth_service.cache.ProfileCache;
 import com.merufureku.aromatica.auth_service.dao.entity.UserDetails;
 import com.merufureku.aromatica.auth_service.dao.entity.UserRoles;
 import com.merufureku.aromatica.auth_service.dao.entity.UserRolesPK;
 import com.merufureku.aromatica.auth_service.dao.entity.Users;
+import com.merufureku.aromatica.auth_service.dao.projection.LoginCredentials;
 import com.merufureku.aromatica.auth_service.dao.repository.UsersRepository;
 import com.merufureku.aromatica.auth_service.dto.params.*;
 import com.merufureku.aromatica.auth_service.dto.responses.*;
@@ -16,12 +18,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static com.merufureku.aromatica.auth_service.enums.CustomStatusEnums.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -49,11 +56,18 @@ class AuthServiceImpl1Test {
     @Mock
     private TokenUtility tokenUtility;
 
+    @Mock
+    private ProfileCache profileCache;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     private BaseParam baseParam;
     private Users user;
     private UserDetails userDetails;
     private RegisterParam registerParam;
     private LoginParam loginParam;
+    private LoginCredentials credentials;
     private UpdateUserDetailsParam updateUserDetailsParam;
     private ChangePasswordParam changePasswordParam;
 
@@ -95,6 +109,7 @@ class AuthServiceImpl1Test {
 
         registerParam = new RegisterParam("newuser", "password123", "Jane", "Smith", "jane@example.com");
         loginParam = new LoginParam("testuser", "password123");
+        credentials = new LoginCredentials(1, "encoded-password", "USER");
         updateUserDetailsParam = new UpdateUserDetailsParam(
                 "Charmaine", "Yap", "Charmaine@example.com", "+1234567891", "Updated bio", "Japan", "profile.jpg", "cover.jpg"
         );
@@ -134,11 +149,11 @@ class AuthServiceImpl1Test {
     void testLogin_whenCredentialsValid_thenLoginSuccessfully() {
         var loginResponse = new LoginResponse(user.getId(), new LoginResponse.Token("access-token", "refresh-token"));
 
-        when(usersRepository.findByUsername(loginParam.username())).thenReturn(Optional.of(user));
+        when(usersRepository.findLoginCredentials(loginParam.username())).thenReturn(Optional.of(credentials));
         when(passwordEncoder.matches(loginParam.password(), user.getPassword())).thenReturn(true);
-        when(tokenHelper.generateToken(user)).thenReturn(loginResponse);
+        when(tokenHelper.generateToken(user.getId(), "USER")).thenReturn(loginResponse);
         doNothing().when(tokenHelper).invalidateAllUserToken(user.getId());
-        doNothing().when(authServiceHelper).updateLastLoginDate(user);
+        doNothing().when(authServiceHelper).updateLastLoginDate(user.getId(), null);
 
         BaseResponse<LoginResponse> response = authService.login(loginParam, baseParam);
 
@@ -148,37 +163,53 @@ class AuthServiceImpl1Test {
         assertNotNull(response.data());
         assertEquals(user.getId(), response.data().id());
 
-        verify(usersRepository, times(1)).findByUsername(loginParam.username());
+        verify(usersRepository, times(1)).findLoginCredentials(loginParam.username());
+        verify(usersRepository, never()).findByUsername(anyString());
         verify(passwordEncoder, times(1)).matches(loginParam.password(), user.getPassword());
         verify(tokenHelper, times(1)).invalidateAllUserToken(user.getId());
-        verify(tokenHelper, times(1)).generateToken(user);
-        verify(authServiceHelper, times(1)).updateLastLoginDate(user);
+        verify(tokenHelper, times(1)).generateToken(user.getId(), "USER");
+        verify(authServiceHelper, times(1)).updateLastLoginDate(user.getId(), null);
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    void testLogin_whenUserHasNoRole_thenThrowException() {
+        when(usersRepository.findLoginCredentials(loginParam.username()))
+                .thenReturn(Optional.of(new LoginCredentials(user.getId(), user.getPassword(), null)));
+        when(passwordEncoder.matches(loginParam.password(), user.getPassword())).thenReturn(true);
+
+        ServiceException exception = assertThrows(ServiceException.class,
+                () -> authService.login(loginParam, baseParam));
+
+        assertEquals(USER_HAS_NO_ROLES, exception.getCustomStatusEnums());
+        verify(transactionTemplate, never()).execute(any());
     }
 
     @Test
     void testLogin_whenUserNotFound_thenThrowException() {
-        when(usersRepository.findByUsername(loginParam.username())).thenReturn(Optional.empty());
+        when(usersRepository.findLoginCredentials(loginParam.username())).thenReturn(Optional.empty());
 
         ServiceException exception = assertThrows(ServiceException.class,
                 () -> authService.login(loginParam, baseParam));
 
         assertEquals(NO_USER_FOUND, exception.getCustomStatusEnums());
-        verify(usersRepository, times(1)).findByUsername(loginParam.username());
+        verify(usersRepository, times(1)).findLoginCredentials(loginParam.username());
         verify(passwordEncoder, never()).matches(anyString(), anyString());
     }
 
     @Test
     void testLogin_whenPasswordInvalid_thenThrowException() {
-        when(usersRepository.findByUsername(loginParam.username())).thenReturn(Optional.of(user));
+        when(usersRepository.findLoginCredentials(loginParam.username())).thenReturn(Optional.of(credentials));
         when(passwordEncoder.matches(loginParam.password(), user.getPassword())).thenReturn(false);
 
         ServiceException exception = assertThrows(ServiceException.class,
                 () -> authService.login(loginParam, baseParam));
 
         assertEquals(NO_USER_FOUND, exception.getCustomStatusEnums());
-        verify(usersRepository, times(1)).findByUsername(loginParam.username());
+        verify(usersRepository, times(1)).findLoginCredentials(loginParam.username());
         verify(passwordEncoder, times(1)).matches(loginParam.password(), user.getPassword());
         verify(tokenHelper, never()).invalidateAllUserToken(anyInt());
+        verify(transactionTemplate, never()).execute(any());
     }
 
     @Test
@@ -193,27 +224,31 @@ class AuthServiceImpl1Test {
 
     @Test
     void testMyDetails_whenUserExists_thenReturnUserDetails() {
-        when(usersRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        var myDetails = new MyDetailsResponse(user.getId(), "mark@example.com", "Mark", "Mercado", 1);
+        when(usersRepository.findMyDetails(user.getId())).thenReturn(Optional.of(myDetails));
+        when(profileCache.get(eq(user.getId()), any())).thenAnswer(loadThroughCache());
 
         BaseResponse<MyDetailsResponse> response = authService.myDetails(user.getId(), baseParam);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK.value(), response.status());
         assertEquals("Get User Details Success", response.message());
-        assertNotNull(response.data());
+        assertEquals(myDetails, response.data());
 
-        verify(usersRepository, times(1)).findById(user.getId());
+        verify(usersRepository, times(1)).findMyDetails(user.getId());
+        verify(usersRepository, never()).findById(anyInt());
     }
 
     @Test
     void testMyDetails_whenUserNotExists_thenThrowException() {
-        when(usersRepository.findById(user.getId())).thenReturn(Optional.empty());
+        when(usersRepository.findMyDetails(user.getId())).thenReturn(Optional.empty());
+        when(profileCache.get(eq(user.getId()), any())).thenAnswer(loadThroughCache());
 
         ServiceException exception = assertThrows(ServiceException.class,
                 () -> authService.myDetails(user.getId(), baseParam));
 
         assertEquals(NO_USER_FOUND, exception.getCustomStatusEnums());
-        verify(usersRepository, times(1)).findById(user.getId());
+        verify(usersRepository, times(1)).findMyDetails(user.getId());
     }
 
     @Test
@@ -238,6 +273,7 @@ class AuthServiceImpl1Test {
 
         verify(usersRepository, times(1)).findByIdWithUserDetails(user.getId());
         verify(authServiceHelper, times(1)).updateUser(user, updateUserDetailsParam);
+        verify(profileCache, times(1)).invalidate(user.getId());
     }
 
     @Test
@@ -250,6 +286,7 @@ class AuthServiceImpl1Test {
         assertEquals(NO_USER_FOUND, exception.getCustomStatusEnums());
         verify(usersRepository, times(1)).findByIdWithUserDetails(user.getId());
         verify(authServiceHelper, never()).updateUser(any(Users.class), any(UpdateUserDetailsParam.class));
+        verify(profileCache, never()).invalidate(anyInt());
     }
 
     @Test
@@ -261,7 +298,9 @@ class AuthServiceImpl1Test {
 
         assertTrue(result);
         verify(usersRepository, times(1)).findById(user.getId());
+        verify(tokenHelper, times(1)).invalidateAllUserToken(user.getId());
         verify(usersRepository, times(1)).delete(user);
+        verify(profileCache, times(1)).invalidate(user.getId());
     }
 
     @Test
@@ -290,6 +329,7 @@ class AuthServiceImpl1Test {
         verify(usersRepository, atMost(1)).findById(user.getId());
         verify(passwordEncoder, atMost(1)).matches(changePasswordParam.oldPassword(), user.getPassword());
         verify(usersRepository, atMost(1)).save(any(Users.class));
+        verify(profileCache, times(1)).invalidate(user.getId());
     }
 
     @Test
@@ -370,5 +410,10 @@ class AuthServiceImpl1Test {
 
         assertEquals(NO_USER_FOUND, exception.getCustomStatusEnums());
     }
-}
 
+    // Runs the loader the service passes in, like a cache miss
+    private static Answer<MyDetailsResponse> loadThroughCache() {
+        return invocation -> invocation.<Function<Integer, MyDetailsResponse>>getArgument(1)
+                .apply(invocation.getArgument(0));
+    }
+}
@@ -0,0 +1,168 @@
+package com.merufureku.aromatica.auth_service.utilities;
+
+import com.merufureku.aromatica.auth_service.config.KeyConfig;
+import com.merufureku.aromatica.auth_service.exception.ServiceException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.Set;
+
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.ACCESS_TOKEN;
+import static com.merufureku.aromatica.auth_service.constants.AuthConstants.REFRESH_TOKEN;
+import static com.merufureku.aromatica.auth_service.enums.CustomStatusEnums.INVALID_TOKEN;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwtKeyRingTest {
+
+    @Mock
+    private KeyConfig keyConfig;
+
+    private String accessSecret;
+    private String previousAccessSecret;
+    private String refreshSecret;
+
+    @BeforeEach
+    void setUp() {
+        accessSecret = randomSecret();
+        previousAccessSecret = randomSecret();
+        refreshSecret = randomSecret();
+
+        when(keyConfig.getJwtAccessSecretKey()).thenReturn(accessSecret);
+        when(keyConfig.getJwtRefreshSecretKey()).thenReturn(refreshSecret);
+        when(keyConfig.getJwtAccessPreviousKeys()).thenReturn(new String[]{previousAccessSecret});
+        when(keyConfig.getJwtRefreshPreviousKeys()).thenReturn(new String[0]);
+    }
+
+    @Test
+    void testParseToken_whenSignedWithActiveKey_thenReturnClaims() {
+        var tokenUtility = new TokenUtility(new JwtKeyRing(keyConfig));
+
+        var token = tokenUtility.generateToken("test-jti", 1, ACCESS_TOKEN, "USER");
+        var claims = tokenUtility.parseToken(token, ACCESS_TOKEN);
+
+        assertEquals("test-jti", claims.getId());
+        assertEquals(1, claims.get("userId", Integer.class));
+        assertEquals("USER", claims.get("role", String.class));
+    }
+
+    @Test
+    void testParseToken_whenSignedWithPreviousKey_thenReturnClaims() {
+        when(keyConfig.getJwtAccessSecretKey()).thenReturn(previousAccessSecret);
+        when(keyConfig.getJwtAccessPreviousKeys()).thenReturn(new String[0]);
+        var token = new TokenUtility(new JwtKeyRing(keyConfig))
+                .generateToken("test-jti", 1, ACCESS_TOKEN, "USER");
+
+        when(keyConfig.getJwtAccessSecretKey()).thenReturn(accessSecret);
+        when(keyConfig.getJwtAccessPreviousKeys()).thenReturn(new String[]{previousAccessSecret});
+        var tokenUtility = new TokenUtility(new JwtKeyRing(keyConfig));
+
+        assertEquals("test-jti", tokenUtility.parseToken(token, ACCESS_TOKEN).getId());
+    }
+
+    @Test
+    void testParseToken_whenWrongTokenType_thenThrowException() {
+        var tokenUtility = new TokenUtility(new JwtKeyRing(keyConfig));
+        var token = tokenUtility.generateToken("test-jti", 1, REFRESH_TOKEN, "USER");
+
+        ServiceException exception = assertThrows(ServiceException.class,
+                () -> tokenUtility.parseToken(token, ACCESS_TOKEN));
+
+        assertEquals(INVALID_TOKEN, exception.getCustomStatusEnums());
+    }
+
+    @Test
+    void testParseToken_whenKeyUnknown_thenThrowException() {
+        when(keyConfig.getJwtAccessSecretKey()).thenReturn(randomSecret());
+        var token = new TokenUtility(new JwtKeyRing(keyConfig))
+                .generateToken("test-jti", 1, ACCESS_TOKEN, "USER");
+
+        when(keyConfig.getJwtAccessSecretKey()).thenReturn(accessSecret);
+        var tokenUtility = new TokenUtility(new JwtKeyRing(keyConfig));
+
+        ServiceException exception = assertThrows(ServiceException.class,
+                () -> tokenUtility.parseToken(token, ACCESS_TOKEN));
+
+        assertEquals(INVALID_TOKEN, exception.getCustomStatusEnums());
+    }
+
+    @Test
+    void testParseToken_whenEs256Configured_thenSignWithPublishedKey() throws Exception {
+        var keyPair = ecKeyPair();
+        stubEs256(keyPair);
+        var jwtKeyRing = new JwtKeyRing(keyConfig);
+        var tokenUtility = new TokenUtility(jwtKeyRing);
+
+        var token = tokenUtility.generateToken("test-jti", 1, ACCESS_TOKEN, "USER");
+
+        var kid = JsonWebKeys.thumbprint((ECPublicKey) keyPair.getPublic());
+        var header = Jwts.parser()
+                .verifyWith(keyPair.getPublic())
+                .build()
+                .parseSignedClaims(token)
+                .getHeader();
+        assertEquals("ES256", header.getAlgorithm());
+        assertEquals(kid, header.getKeyId());
+        assertEquals(Set.of(kid), jwtKeyRing.publicKeys().keySet());
+        assertEquals("test-jti", tokenUtility.parseToken(token, ACCESS_TOKEN).getId());
+    }
+
+    @Test
+    void testParseToken_whenSwitchedToEs256_thenAcceptHmacTokens() throws Exception {
+        var hmacToken = new TokenUtility(new JwtKeyRing(keyConfig))
+                .generateToken("hmac-jti", 1, ACCESS_TOKEN, "USER");
+
+        stubEs256(ecKeyPair());
+        var tokenUtility = new TokenUtility(new JwtKeyRing(keyConfig));
+
+        assertEquals("hmac-jti", tokenUtility.parseToken(hmacToken, ACCESS_TOKEN).getId());
+    }
+
+    @Test
+    void testJwtKeyRing_whenEs256KeysDoNotMatch_thenThrowException() throws Exception {
+        var keyPair = ecKeyPair();
+        when(keyConfig.getJwtAccessSigningAlgorithm()).thenReturn("ES256");
+        when(keyConfig.getJwtAccessPrivateKey()).thenReturn(encode(keyPair.getPrivate().getEncoded()));
+        when(keyConfig.getJwtAccessPublicKey()).thenReturn(encode(ecKeyPair().getPublic().getEncoded()));
+
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(keyConfig));
+    }
+
+    @Test
+    void testPublicKeys_whenHmacOnly_thenEmpty() {
+        assertTrue(new JwtKeyRing(keyConfig).publicKeys().isEmpty());
+    }
+
+    private void stubEs256(KeyPair keyPair) {
+        when(keyConfig.getJwtAccessSigningAlgorithm()).thenReturn("ES256");
+        when(keyConfig.getJwtAccessPrivateKey()).thenReturn(encode(keyPair.getPrivate().getEncoded()));
+        when(keyConfig.getJwtAccessPublicKey()).thenReturn(encode(keyPair.getPublic().getEncoded()));
+    }
+
+    private static KeyPair ecKeyPair() throws Exception {
+        var generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    private static String encode(byte[] encoded) {
+        return Base64.getEncoder().encodeToString(encoded);
+    }
+
+    private static String randomSecret() {
+        var keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        return Base64.getEncoder().encodeToString(keyBytes);
+    }
+}
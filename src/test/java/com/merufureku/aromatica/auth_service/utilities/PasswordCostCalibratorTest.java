@@ -0,0 +1,57 @@
+package com.merufureku.aromatica.auth_service.utilities;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordCostCalibratorTest {
+
+    @Test
+    void testCalibrate_whenCostGrowsPastBudget_thenPickHighestWithinBudget() {
+        var calibrator = new PasswordCostCalibrator(Duration.ofMillis(45), 3);
+
+        var cost = calibrator.calibrate("fake", step -> sleepingEncoder(step * 10L), 1, 10);
+
+        assertEquals(4, cost);
+    }
+
+    @Test
+    void testCalibrate_whenFloorIsOverBudget_thenKeepFloor() {
+        var calibrator = new PasswordCostCalibrator(Duration.ofMillis(5), 1);
+
+        var cost = calibrator.calibrate("fake", ignored -> sleepingEncoder(20), 10, 12);
+
+        assertEquals(10, cost);
+    }
+
+    @Test
+    void testCalibrate_whenEverythingFits_thenStopAtCeiling() {
+        var calibrator = new PasswordCostCalibrator(Duration.ofSeconds(1), 1);
+
+        var cost = calibrator.calibrate("fake", ignored -> sleepingEncoder(0), 4, 6);
+
+        assertEquals(6, cost);
+    }
+
+    private static PasswordEncoder sleepingEncoder(long millis) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    Thread.sleep(millis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package com.merufureku.aromatica.auth_service.utilities;
+
+import com.merufureku.aromatica.auth_service.exception.ServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.merufureku.aromatica.auth_service.enums.CustomStatusEnums.PASSWORD_HASHING_BUSY;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor hashingExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hashingExecutor = new PasswordHashingExecutor(meterRegistry, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void testExecute_whenTaskCompletes_thenReturnResultFromPoolThread() {
+        var threadName = hashingExecutor.execute(() -> Thread.currentThread().getName());
+
+        assertTrue(threadName.startsWith("password-hashing-"));
+        assertEquals(1, meterRegistry.get("password.hashing.duration").timer().count());
+        assertEquals(1, meterRegistry.get("password.hashing.wait").timer().count());
+        assertEquals(1, meterRegistry.get("password.hashing.pool.size").gauge().value());
+    }
+
+    @Test
+    void testExecute_whenTaskThrows_thenRethrowOnCaller() {
+        var exception = assertThrows(IllegalArgumentException.class,
+                () -> hashingExecutor.execute(() -> { throw new IllegalArgumentException("bad hash"); }));
+
+        assertEquals("bad hash", exception.getMessage());
+    }
+
+    @Test
+    void testExecute_whenQueueIsFull_thenRejectWithServiceUnavailable() throws Exception {
+        var running = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        // Occupy the only thread, then fill the only queue slot
+        var first = CompletableFuture.supplyAsync(() -> hashingExecutor.execute(() -> {
+            running.countDown();
+            await(release);
+            return "first";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        var second = CompletableFuture.supplyAsync(() -> hashingExecutor.execute(() -> "second"));
+        waitForQueueSize(1);
+
+        var exception = assertThrows(ServiceException.class, () -> hashingExecutor.execute(() -> "third"));
+
+        assertEquals(PASSWORD_HASHING_BUSY, exception.getCustomStatusEnums());
+        assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+    }
+
+    private void waitForQueueSize(int expected) throws InterruptedException {
+        var gauge = meterRegistry.get("password.hashing.queue.size").gauge();
+        for (int i = 0; i < 500 && gauge.value() < expected; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, gauge.value());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}